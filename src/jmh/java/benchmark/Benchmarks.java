@@ -0,0 +1,91 @@
+package benchmark;
+
+import model.Equation;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Helpers of benchmarks: generators of equations and settings of logs
+ */
+public final class Benchmarks {
+
+    /**
+     * Arguments of forked JVM of every benchmark
+     */
+    public static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    private static final char[] OPERATIONS = {'+', '-', '*', '/'};
+
+    private Benchmarks(){}
+
+    /**
+     * Every call of parser and repository is logged at debug level,
+     * benchmarks measure code, not logs, so only warnings are logged
+     */
+    public static void quietLogs(){
+        org.apache.log4j.Logger.getRootLogger().setLevel(org.apache.log4j.Level.WARN);
+    }
+
+    /**
+     * @param random source of randomness, the same seed gives the same equation
+     * @param numbers number of numbers in equation
+     * @param depth maximum nesting of parentheses
+     *
+     * @return random correct equation, like "(12.5 + 3*(7-2,25)) - 4/8"
+     * Division is never followed by parentheses, so result is never division by zero
+     */
+    public static String equation(Random random, int numbers, int depth){
+        StringBuilder equation = new StringBuilder();
+        append(equation, random, Math.max(numbers, 1), Math.max(depth, 0));
+        return equation.toString();
+    }
+
+    private static void append(StringBuilder equation, Random random, int numbers, int depth){
+        int flat = numbers;
+        if (depth > 0 && numbers > 1) {
+            int inner = numbers / 2;
+            equation.append('(');
+            append(equation, random, inner, depth - 1);
+            equation.append(')');
+            flat = numbers - inner;
+        } else {
+            number(equation, random);
+            flat--;
+        }
+
+        for (int index = 0; index < flat; index++) {
+            equation.append(random.nextInt(5) == 0 ? " " : "");
+            equation.append(OPERATIONS[random.nextInt(OPERATIONS.length)]);
+            equation.append(random.nextInt(5) == 0 ? " " : "");
+            number(equation, random);
+        }
+    }
+
+    private static void number(StringBuilder equation, Random random){
+        equation.append(1 + random.nextInt(999));
+        switch (random.nextInt(3)) {
+            case 0 -> equation.append('.').append(random.nextInt(100));
+            case 1 -> equation.append(',').append(random.nextInt(10));
+            default -> {}
+        }
+    }
+
+    /**
+     * @param count number of equations
+     * @param seed of random
+     *
+     * @return equations without ids with random equations of 2-16 numbers
+     */
+    public static ArrayList<Equation> equations(int count, long seed){
+        Random random = new Random(seed);
+        ArrayList<Equation> equations = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            Equation equation = new Equation();
+            equation.setEquation(equation(random, 2 + random.nextInt(15), 2));
+            equation.setResult(random.nextDouble() * 1000);
+            equations.add(equation);
+        }
+        return equations;
+    }
+}
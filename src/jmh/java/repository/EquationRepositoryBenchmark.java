@@ -0,0 +1,121 @@
+package repository;
+
+import benchmark.Benchmarks;
+import model.Equation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of {@link EquationRepository_sql} with temp SQLite file of {@link #rows} equations
+ * Profile "default" is SQLite defaults, profile "tuned" is profile from jdbc.properties
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.VECTOR_MODULE)
+public class EquationRepositoryBenchmark {
+    private static final int BATCH = 1000;
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"default", "tuned"})
+    public String profile;
+
+    private Path directory;
+    private EquationRepository_sql repository;
+    private ArrayList<Equation> batch;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Benchmarks.quietLogs();
+        directory = Files.createTempDirectory("benchmark");
+        repository = new EquationRepository_sql("jdbc:sqlite:" + directory.resolve("benchmark.db"), null, null, profile());
+
+        ArrayList<Equation> equations = Benchmarks.equations(rows, 1);
+        for (int from = 0; from < rows; from += 10_000) {
+            repository.addAll(equations.subList(from, Math.min(rows, from + 10_000)));
+        }
+        batch = Benchmarks.equations(BATCH, 2);
+    }
+
+    private StorageProfile profile(){
+        if ("default".equals(profile)) return StorageProfile.DEFAULT;
+
+        Properties properties = new Properties();
+        properties.setProperty("sqlite.journal_mode", "WAL");
+        properties.setProperty("sqlite.synchronous", "NORMAL");
+        properties.setProperty("sqlite.mmap_size", "268435456");
+        properties.setProperty("sqlite.cache_size", "-65536");
+        properties.setProperty("sqlite.temp_store", "MEMORY");
+        return StorageProfile.fromProperties(properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public Equation getById(){
+        return repository.get(1 + random.nextInt(rows));
+    }
+
+    @Benchmark
+    public ArrayList<Equation> page(){
+        return repository.page(random.nextInt(rows), 200);
+    }
+
+    @Benchmark
+    public ArrayList<Equation> betweenNarrow(){
+        double from = random.nextDouble() * 1000;
+        return repository.between(from, from + 0.1);
+    }
+
+    @Benchmark
+    public ArrayList<Equation> getByCondition(){
+        return repository.get(">", 999.9);
+    }
+
+    @Benchmark
+    public boolean add(){
+        return repository.add(batch.get(random.nextInt(BATCH)));
+    }
+
+    /**
+     * One transaction with {@link #BATCH} equations
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] addAll(){
+        return repository.addAll(batch);
+    }
+}
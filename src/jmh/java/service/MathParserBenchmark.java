@@ -0,0 +1,88 @@
+package service;
+
+import benchmark.Benchmarks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link MathParser} for equations of different size and nesting
+ * Every invocation takes next one of {@link #EQUATIONS} different equations, so branch predictor can't learn one equation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = Benchmarks.VECTOR_MODULE)
+public class MathParserBenchmark {
+    private static final int EQUATIONS = 16;
+
+    /**
+     * Number of numbers in equation
+     */
+    @Param({"4", "64", "1024"})
+    public int numbers;
+
+    /**
+     * Maximum nesting of parentheses
+     */
+    @Param({"0", "8"})
+    public int depth;
+
+    private final MathParser parser = new MathParser();
+    private final String[] equations = new String[EQUATIONS];
+    private final CompiledExpression[] compiled = new CompiledExpression[EQUATIONS];
+    private int index = 0;
+
+    @Setup
+    public void setUp(){
+        Benchmarks.quietLogs();
+        Random random = new Random(numbers * 31L + depth);
+        for (int i = 0; i < EQUATIONS; i++) {
+            equations[i] = Benchmarks.equation(random, numbers, depth);
+            compiled[i] = parser.compile(equations[i]);
+            if (compiled[i] == null) throw new IllegalStateException("Generated equation is incorrect: " + equations[i]);
+        }
+    }
+
+    private int next(){
+        return index = (index + 1) & (EQUATIONS - 1);
+    }
+
+    @Benchmark
+    public String calculate(){
+        return parser.calculate(equations[next()]);
+    }
+
+    @Benchmark
+    public boolean equationIsCorrect(){
+        return parser.equationIsCorrect(equations[next()]);
+    }
+
+    @Benchmark
+    public int numberOfNumbers(){
+        return parser.numberOfNumbers(equations[next()]);
+    }
+
+    @Benchmark
+    public String prepare(){
+        return MathParser.prepare(equations[next()]);
+    }
+
+    @Benchmark
+    public double evaluateCompiled(){
+        return compiled[next()].evaluate();
+    }
+}
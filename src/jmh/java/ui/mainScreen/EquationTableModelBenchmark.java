@@ -0,0 +1,100 @@
+package ui.mainScreen;
+
+import benchmark.Benchmarks;
+import model.Equation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import repository.EquationRepository_sql;
+import service.EquationService;
+import service.EquationService_impl;
+
+import javax.swing.table.DefaultTableModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of construction of table model of {@link MainTable} for large lists
+ * {@link #defaultTableModel()} is how table model was built before {@link EquationTableModel}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = {Benchmarks.VECTOR_MODULE, "-Djava.awt.headless=true"})
+public class EquationTableModelBenchmark {
+    private static final int VISIBLE_ROWS = 50;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private ArrayList<Equation> list;
+    private Path directory;
+    private EquationService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Benchmarks.quietLogs();
+        list = Benchmarks.equations(rows, 1);
+
+        directory = Files.createTempDirectory("benchmark");
+        service = new EquationService_impl(new EquationRepository_sql("jdbc:sqlite:" + directory.resolve("benchmark.db"), null, null));
+        for (int from = 0; from < rows; from += 10_000) {
+            service.addAll(list.subList(from, Math.min(rows, from + 10_000)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public DefaultTableModel defaultTableModel(){
+        DefaultTableModel model = new DefaultTableModel();
+        model.setColumnIdentifiers(new String[]{"Equation", "Result"});
+        for (Equation equation : list) {
+            model.addRow(new String[]{equation.getEquation(), String.format(Locale.GERMAN,"%2f", equation.getResult())});
+        }
+        return model;
+    }
+
+    @Benchmark
+    public EquationTableModel listModel(){
+        return new EquationTableModel(list);
+    }
+
+    /**
+     * Model of all equations from DB and first screen of rows
+     * Pages are read in the thread of benchmark, so time includes reading of first page
+     */
+    @Benchmark
+    public void lazyModel(Blackhole blackhole){
+        EquationTableModel model = new EquationTableModel(service, service.ids(), Runnable::run, Runnable::run);
+        for (int row = 0; row < VISIBLE_ROWS; row++) {
+            blackhole.consume(model.getValueAt(row, 0));
+            blackhole.consume(model.getValueAt(row, 1));
+        }
+    }
+}
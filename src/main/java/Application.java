@@ -1,14 +1,17 @@
+import metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ui.mainScreen.MainScreen;
 
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 public class Application {
     private static final Logger LOGGER = LoggerFactory.getLogger(Application.class);
 
     public static void main(String[]args){
         LOGGER.info("Application has started");
+        MetricsRegistry.DEFAULT.startLogging(1, TimeUnit.MINUTES);
         EventQueue.invokeLater(() -> new MainScreen().setVisible(true));
     }
 }
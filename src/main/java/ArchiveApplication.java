@@ -0,0 +1,103 @@
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.EquationArchive;
+import repository.EquationRepository;
+import repository.EquationRepository_sql;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+/**
+ * Headless entry point for bulk export and import of all equations of DB
+ * Archive works with repository directly, without services, so it MUST! NOT run while {@link Application}
+ * works with the same DB: index of results, table and memo of application wouldn't see imported equations
+ *
+ * Usage: java ArchiveApplication export|import [options] file
+ *   --csv       CSV file instead of binary file
+ *   --keep-ids  import saves equations with ids from file (equations with the same ids are replaced)
+ *   --db <url>  DB with this URL (DB from jdbc.properties by default)
+ *
+ * @see EquationArchive
+ * @see BatchApplication
+ */
+public class ArchiveApplication {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArchiveApplication.class);
+
+    private static final String USAGE = """
+            Usage: java ArchiveApplication export|import [options] file
+              --csv       CSV file instead of binary file
+              --keep-ids  import saves equations with ids from file (equations with the same ids are replaced)
+              --db <url>  DB with this URL (DB from jdbc.properties by default)""";
+
+    private String command = null;
+    private String file = null;
+    private boolean csv = false;
+    private boolean keepIds = false;
+    private String dbUrl = null;
+
+    public static void main(String[] args) {
+        System.exit(new ArchiveApplication().run(args, System.out, System.err));
+    }
+
+    /**
+     * @param args of command line
+     * @param out standard output, for report
+     * @param err standard error, for errors
+     *
+     * @return exit code: 0 if all equations were exported or imported
+     * 1 if file can't be written or read
+     * 2 if args are incorrect
+     */
+    int run(String[] args, PrintStream out, PrintStream err){
+        if (!parseArgs(args, err)) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        Path path = Path.of(file);
+        try (EquationRepository repository = dbUrl == null ? new EquationRepository_sql() : new EquationRepository_sql(dbUrl, null, null)) {
+            long count;
+            if ("export".equals(command)) {
+                count = csv ? EquationArchive.exportCsv(repository, path) : EquationArchive.exportBinary(repository, path);
+                out.println(String.format("Exported %d equations to %s", count, path));
+            } else {
+                count = csv ? EquationArchive.importCsv(repository, path, keepIds) : EquationArchive.importBinary(repository, path, keepIds);
+                out.println(String.format("Imported %d equations from %s", count, path));
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Exception was thrown:", ex);
+            err.println("Archive " + command + " failed: " + ex.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if args are correct
+     */
+    private boolean parseArgs(String[] args, PrintStream err){
+        for (int index = 0; index < args.length; index++) {
+            String arg = args[index];
+            switch (arg) {
+                case "--csv" -> csv = true;
+                case "--keep-ids" -> keepIds = true;
+                case "--db" -> {
+                    if (++index == args.length) return false;
+                    dbUrl = args[index];
+                }
+                default -> {
+                    if (command == null && ("export".equals(arg) || "import".equals(arg))) {
+                        command = arg;
+                    } else if (command != null && file == null && !arg.startsWith("--")) {
+                        file = arg;
+                    } else {
+                        err.println("Unknown argument: " + arg);
+                        return false;
+                    }
+                }
+            }
+        }
+        return command != null && file != null;
+    }
+}
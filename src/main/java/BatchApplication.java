@@ -0,0 +1,317 @@
+import model.Equation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.EquationRepository_sql;
+import service.AsyncEquationService_writeBehind;
+import service.EquationService;
+import service.EquationService_impl;
+import service.MathParser;
+import service.MathParserService;
+import service.MathParserService_memo;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless entry point that calculates file of equations without UI
+ * Input has one equation per line, output has line "equation TAB result" for every equation
+ * (result is ERROR if equation is incorrect), empty lines are skipped
+ * Input is read by chunks of {@link #CHUNK_SIZE} lines, so memory doesn't depend on size of input
+ * Equations of chunk are calculated in parallel and written in order of input,
+ * next chunk is read while previous one is calculating
+ * Equations of chunk are saved to DB before the chunk after next one is read, so memory doesn't depend on speed of DB
+ *
+ * Usage: java BatchApplication [options] [input file]
+ *   --output <file>    file for results (standard output by default)
+ *   --threads <number> number of threads (number of processors by default)
+ *   --store            saves correct equations to DB from jdbc.properties
+ *   --db <url>         saves correct equations to DB with this URL
+ *   --memo             takes results of equations that are in DB from DB, saves other correct equations (implies --store)
+ * Input is standard input if input file isn't set or it is "-"
+ * Throughput is reported to standard error
+ * Only warnings are logged to console (to standard error), -D{@value #LOG_THRESHOLD}=DEBUG shows all logs
+ *
+ * @see Application
+ */
+public class BatchApplication {
+    /**
+     * System properties that are used by log4j.properties for console appender
+     */
+    private static final String LOG_THRESHOLD = "log.console.threshold";
+    private static final String LOG_TARGET = "log.console.target";
+
+    /*
+     * Logs in console would mix with results in standard output, so console gets only warnings in standard error
+     * unless properties are set in command line
+     * Runs before the first logger is created, because log4j reads properties once
+     */
+    static {
+        if (System.getProperty(LOG_THRESHOLD) == null) System.setProperty(LOG_THRESHOLD, "WARN");
+        if (System.getProperty(LOG_TARGET) == null) System.setProperty(LOG_TARGET, "System.err");
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchApplication.class);
+
+    static final int CHUNK_SIZE = 8192;
+    private static final String ERROR = "ERROR";
+
+    private static final String USAGE = """
+            Usage: java BatchApplication [options] [input file]
+              --output <file>    file for results (standard output by default)
+              --threads <number> number of threads (number of processors by default)
+              --store            saves correct equations to DB from jdbc.properties
+              --db <url>         saves correct equations to DB with this URL
+              --memo             takes results of equations that are in DB from DB, saves other correct equations (implies --store)""";
+
+    private MathParserService parser = new MathParser();
+
+    private String input = "-";
+    private String output = null;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean store = false;
+    private boolean memo = false;
+    private String dbUrl = null;
+
+    private long equations = 0;
+    private long incorrect = 0;
+
+    public static void main(String[] args) {
+        System.exit(new BatchApplication().run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * @param args of command line
+     * @param in standard input
+     * @param out standard output
+     * @param err standard error, for report and errors
+     *
+     * @return exit code: 0 if all equations were processed
+     * 1 if input or output failed or equations of some chunk weren't saved to DB (output has results before it)
+     * 2 if args are incorrect
+     */
+    int run(String[] args, InputStream in, PrintStream out, PrintStream err){
+        if (!parseArgs(args, err)) {
+            err.println(USAGE);
+            return 2;
+        }
+
+        LOGGER.info("Batch calculation has started with input = {}, threads = {}", input, threads);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EquationService service = store ? service() : null;
+        AsyncEquationService_writeBehind storage = service == null ? null : new AsyncEquationService_writeBehind(service);
+        MathParserService_memo memoParser = null;
+        if (memo) {
+            memoParser = new MathParserService_memo(parser, service, storage);
+            memoParser.rebuild().join();
+            parser = memoParser;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     "-".equals(input) ? in : new FileInputStream(input), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     output == null ? nonClosing(out) : new FileOutputStream(output), StandardCharsets.UTF_8))) {
+
+            CompletableFuture<Void> stored = CompletableFuture.completedFuture(null);
+            long storedFrom = 0;
+            String[] chunk = readChunk(reader);
+            while (chunk.length > 0) {
+                List<Future<?>> tasks = new ArrayList<>(threads);
+                String[] results = new String[chunk.length];
+                int slice = (chunk.length + threads - 1) / threads;
+                for (int from = 0; from < chunk.length; from += slice) {
+                    int begin = from;
+                    int end = Math.min(chunk.length, from + slice);
+                    String[] lines = chunk;
+                    tasks.add(executor.submit(() -> calculate(lines, results, begin, end)));
+                }
+
+                if (!saved(stored, storedFrom, err)) return 1;
+                String[] next = readChunk(reader);
+                for (Future<?> task : tasks) task.get();
+
+                ArrayList<CompletableFuture<Boolean>> saves = new ArrayList<>();
+                for (int index = 0; index < chunk.length; index++) {
+                    String result = results[index];
+                    writer.write(chunk[index]);
+                    writer.write('\t');
+                    if (result == null) {
+                        incorrect++;
+                        writer.write(ERROR);
+                    } else {
+                        writer.write(result);
+                        if (storage != null && memoParser == null) {
+                            Equation equation = new Equation();
+                            equation.setEquation(chunk[index]);
+                            equation.setResult(Double.parseDouble(result));
+                            saves.add(storage.add(equation));
+                        }
+                    }
+                    writer.write('\n');
+                }
+                if (storage != null) {
+                    CompletableFuture<Void> all = CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0]));
+                    stored = storage.flush().thenCompose(v -> all).thenRun(() -> {
+                        long failed = saves.stream().filter(save -> !save.join()).count();
+                        if (failed > 0) throw new IllegalStateException(failed + " equations weren't saved");
+                    });
+                    storedFrom = equations;
+                }
+                equations += chunk.length;
+                chunk = next;
+            }
+            if (!saved(stored, storedFrom, err)) return 1;
+        } catch (IOException | ExecutionException ex) {
+            LOGGER.error("Exception was thrown:", ex);
+            err.println("Batch calculation failed: " + ex.getMessage());
+            return 1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } finally {
+            executor.shutdownNow();
+            if (storage != null) storage.close();
+            if (service != null) service.close();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        String report = String.format("Calculated %d equations (%d incorrect) in %.3f s, %.0f equations/s",
+                equations, incorrect, seconds, seconds > 0 ? equations / seconds : 0D);
+        if (memoParser != null) report += String.format(", %d found in DB", memoParser.getHits());
+        else if (storage != null) report += String.format(", %d saved to DB", equations - incorrect);
+        err.println(report);
+        LOGGER.info(report);
+        return 0;
+    }
+
+    /**
+     * @return true if args are correct
+     */
+    private boolean parseArgs(String[] args, PrintStream err){
+        for (int index = 0; index < args.length; index++) {
+            String arg = args[index];
+            switch (arg) {
+                case "--output" -> {
+                    if (++index == args.length) return false;
+                    output = args[index];
+                }
+                case "--threads" -> {
+                    if (++index == args.length) return false;
+                    try {
+                        threads = Integer.parseInt(args[index]);
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                    if (threads < 1) return false;
+                }
+                case "--db" -> {
+                    if (++index == args.length) return false;
+                    dbUrl = args[index];
+                    store = true;
+                }
+                case "--store" -> store = true;
+                case "--memo" -> {
+                    memo = true;
+                    store = true;
+                }
+                default -> {
+                    if (arg.startsWith("--") || !"-".equals(input)) {
+                        err.println("Unknown argument: " + arg);
+                        return false;
+                    }
+                    input = arg;
+                }
+            }
+        }
+        return true;
+    }
+
+    private EquationService service(){
+        return new EquationService_impl(dbUrl == null ? new EquationRepository_sql() : new EquationRepository_sql(dbUrl, null, null));
+    }
+
+    /**
+     * @return next not empty lines of input, but not more than {@link #CHUNK_SIZE}
+     * empty array if input is over
+     */
+    private static String[] readChunk(BufferedReader reader) throws IOException {
+        ArrayList<String> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        while (chunk.size() < CHUNK_SIZE && (line = reader.readLine()) != null) {
+            line = line.strip();
+            if (!line.isEmpty()) chunk.add(line);
+        }
+        return chunk.toArray(new String[0]);
+    }
+
+    /**
+     * Waits until equations of chunk are saved to DB
+     *
+     * @param stored saving of chunk
+     * @param from number of equations before chunk
+     *
+     * @return true if all equations of chunk were saved
+     * false if saving failed, error is reported to err
+     */
+    private static boolean saved(CompletableFuture<Void> stored, long from, PrintStream err){
+        try {
+            stored.join();
+            return true;
+        } catch (CompletionException ex) {
+            LOGGER.error("Exception was thrown:", ex);
+            err.println(String.format("Saving of chunk %d (equations from %d) to DB failed: %s",
+                    from / CHUNK_SIZE + 1, from + 1, ex.getCause().getMessage()));
+            return false;
+        }
+    }
+
+    private void calculate(String[] equations, String[] results, int from, int to){
+        for (int index = from; index < to; index++) {
+            results[index] = parser.calculate(equations[index]);
+        }
+    }
+
+    /**
+     * @return stream that writes to out, but doesn't close it
+     */
+    private static OutputStream nonClosing(OutputStream out){
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with log-linear buckets (like HdrHistogram):
+ * every power of two is split into {@link #SUB_BUCKETS} buckets, so relative error of percentile is less than 1/16
+ * Recording is one increment of array and two of adders, threads never wait each other
+ *
+ * @see OperationMetrics
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos latency, negative latency is recorded as 0
+     */
+    public void record(long nanos){
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * @return number of bucket of value
+     */
+    static int index(long value){
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return minimal value of bucket
+     */
+    static long lowerBound(int index){
+        if (index < SUB_BUCKETS) return index;
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    public long getCount(){
+        return count.sum();
+    }
+
+    /**
+     * @return sum of all latencies in nanoseconds
+     */
+    public long getSum(){
+        return sum.sum();
+    }
+
+    /**
+     * @return maximal latency in nanoseconds
+     */
+    public long getMax(){
+        return max.get();
+    }
+
+    /**
+     * Histogram can be recorded while percentile is calculating, so result is approximate
+     *
+     * @param percentile from 0 to 100
+     *
+     * @return maximal latency of bucket that contains percentile in nanoseconds
+     * 0 if nothing was recorded
+     */
+    public long percentile(double percentile){
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            counts[index] = this.counts.get(index);
+            total += counts[index];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts[index];
+            if (seen >= rank) {
+                return Math.min(index + 1 < BUCKETS ? lowerBound(index + 1) - 1 : Long.MAX_VALUE, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears histogram, values that are recorded while clearing can be lost
+     */
+    public void reset(){
+        for (int index = 0; index < BUCKETS; index++) counts.set(index, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,94 @@
+package metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of metrics of operations by their names
+ * Metrics are recorded by decorators of services and can be logged periodically by {@link #startLogging(long, TimeUnit)}
+ *
+ * @see service.MathParserService_metrics
+ * @see repository.EquationRepository_metrics
+ */
+public class MetricsRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    /**
+     * Registry of application
+     */
+    public static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private ScheduledExecutorService logger;
+
+    /**
+     * @param name of operation
+     *
+     * @return metrics of operation, they are created by first request
+     */
+    public OperationMetrics operation(String name){
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * @return snapshots of all operations sorted by names
+     */
+    public List<OperationMetrics.Snapshot> snapshot(){
+        List<OperationMetrics.Snapshot> snapshot = new ArrayList<>(operations.size());
+        for (OperationMetrics operation : operations.values()) {
+            snapshot.add(operation.snapshot());
+        }
+        snapshot.sort(Comparator.comparing(OperationMetrics.Snapshot::name));
+        return snapshot;
+    }
+
+    /**
+     * Clears metrics of all operations
+     */
+    public void reset(){
+        for (OperationMetrics operation : operations.values()) operation.reset();
+    }
+
+    /**
+     * Logs snapshot of operations that were called at least once
+     */
+    public void log(){
+        for (OperationMetrics.Snapshot snapshot : snapshot()) {
+            if (snapshot.count() > 0) LOGGER.info("{}", snapshot);
+        }
+    }
+
+    /**
+     * Starts logging of metrics by {@link #log()} in daemon thread, previous logging is stopped
+     *
+     * @param period between logs
+     * @param unit of period
+     */
+    public synchronized void startLogging(long period, TimeUnit unit){
+        stopLogging();
+        logger = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(this::log, period, period, unit);
+    }
+
+    /**
+     * Stops logging that was started by {@link #startLogging(long, TimeUnit)}
+     */
+    public synchronized void stopLogging(){
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, errors and latencies of one operation
+ *
+ * @see MetricsRegistry#operation(String)
+ */
+public final class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String name){
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return start time for {@link #record(long, boolean)}
+     */
+    public static long start(){
+        return System.nanoTime();
+    }
+
+    /**
+     * @param start time from {@link #start()}
+     * @param error true if operation failed
+     */
+    public void record(long start, boolean error){
+        latencies.record(System.nanoTime() - start);
+        if (error) errors.increment();
+    }
+
+    /**
+     * @return snapshot of metrics of operation, latencies are in nanoseconds
+     */
+    public Snapshot snapshot(){
+        long count = latencies.getCount();
+        return new Snapshot(name, count, errors.sum(),
+                count == 0 ? 0 : latencies.getSum() / count,
+                latencies.percentile(50), latencies.percentile(90),
+                latencies.percentile(99), latencies.percentile(99.9),
+                latencies.getMax());
+    }
+
+    void reset(){
+        latencies.reset();
+        errors.reset();
+    }
+
+    /**
+     * Metrics of operation at one moment, latencies are in nanoseconds
+     */
+    public record Snapshot(String name, long count, long errors, long mean,
+                           long p50, long p90, long p99, long p999, long max){
+
+        @Override
+        public String toString() {
+            return String.format("%s: count = %d, errors = %d, mean = %s, p50 = %s, p90 = %s, p99 = %s, p99.9 = %s, max = %s",
+                    name, count, errors, time(mean), time(p50), time(p90), time(p99), time(p999), time(max));
+        }
+
+        private static String time(long nanos){
+            if (nanos < 10_000L) return nanos + "ns";
+            if (nanos < 10_000_000L) return nanos / 1_000L + "us";
+            return nanos / 1_000_000L + "ms";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled tracing of hot operations (parsing, requests to DB)
+ * Every traced operation is one debug event with its size and time, but only one of {@link #getSampling()} operations is traced
+ * Tracing is disabled by default (sampling = 0), it can be enabled by system property {@link #SAMPLING_PROPERTY}
+ * or by {@link #setSampling(int)}
+ * If tracing is disabled or debug level of logger is disabled, {@link #start()} and {@link #end} don't allocate anything,
+ * so arguments of {@link #end} MUST! be values that already exist (primitive sizes, strings of operation)
+ *
+ * Usage:
+ *   long trace = TRACER.start();
+ *   ... operation ...
+ *   TRACER.end(trace, "operation", size);
+ *
+ * @see MetricsRegistry for counts and latencies of all operations
+ */
+public final class Tracer {
+
+    /**
+     * Name of system property with sampling, for example -Dtrace.sampling=100 traces 1 of 100 operations
+     */
+    public static final String SAMPLING_PROPERTY = "trace.sampling";
+
+    /**
+     * Value of {@link #start()} if operation isn't traced
+     */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    /**
+     * 0 if tracing is disabled
+     * 1 if every operation is traced
+     * n if 1 of n operations is traced
+     */
+    private static volatile int sampling = Math.max(Integer.getInteger(SAMPLING_PROPERTY, 0), 0);
+
+    private final Logger logger;
+
+    private Tracer(Logger logger){
+        this.logger = logger;
+    }
+
+    /**
+     * @param type whose operations are traced
+     *
+     * @return tracer that logs events by logger of type
+     */
+    public static Tracer of(Class<?> type){
+        return new Tracer(LoggerFactory.getLogger(type));
+    }
+
+    /**
+     * @return 0 if tracing is disabled
+     * n if 1 of n operations is traced
+     */
+    public static int getSampling() {
+        return sampling;
+    }
+
+    /**
+     * @param sampling 0 to disable tracing
+     * n to trace 1 of n operations
+     */
+    public static void setSampling(int sampling) {
+        Tracer.sampling = Math.max(sampling, 0);
+    }
+
+    /**
+     * @return true if operation that starts now will be traced
+     */
+    public boolean isSampled(){
+        int sampling = Tracer.sampling;
+        if (sampling == 0 || !logger.isDebugEnabled()) return false;
+        return sampling == 1 || ThreadLocalRandom.current().nextInt(sampling) == 0;
+    }
+
+    /**
+     * @return start time of operation for {@link #end}
+     * {@link #NOT_SAMPLED} if operation isn't traced
+     */
+    public long start(){
+        return isSampled() ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    /**
+     * Logs event "operation: size = ..., time = ... ns" if operation is traced
+     *
+     * @param start from {@link #start()}
+     * @param operation name of operation
+     * @param size of input or result of operation (length of equation, number of equations)
+     */
+    public void end(long start, String operation, long size){
+        if (start == NOT_SAMPLED) return;
+
+        logger.debug("{}: size = {}, time = {} ns", operation, size, System.nanoTime() - start);
+    }
+
+    /**
+     * Logs event "operation: size = ..., time = ... ns, detail" if operation is traced
+     *
+     * @param start from {@link #start()}
+     * @param operation name of operation
+     * @param size of input or result of operation (length of equation, number of equations)
+     * @param detail of operation (for example input equation), it is converted to string only if operation is traced
+     */
+    public void end(long start, String operation, long size, Object detail){
+        if (start == NOT_SAMPLED) return;
+
+        logger.debug("{}: size = {}, time = {} ns, {}", operation, size, System.nanoTime() - start, detail);
+    }
+}
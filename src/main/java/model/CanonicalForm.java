@@ -0,0 +1,72 @@
+package model;
+
+/**
+ * Canonical form of equation: equation as parser sees it
+ * Equations with the same canonical form ("1,5+2", "1.5 + 2", "+1.5+2") are the same equation with the same result
+ *
+ * @see #of(String)
+ * @see #hash(String)
+ */
+public final class CanonicalForm {
+
+    private CanonicalForm(){}
+
+    /**
+     * This method removes from String all spaces and replaces commas to dots
+     * if the first characters in the equation is '+' they will be removed
+     * '+' after other action or '(' will be removed
+     * '*' will be added between number or ')' and '('
+     *
+     * @param equation before transformation
+     *
+     * @return String without spaces and with dots instead of commas
+     * null if equation == null
+     */
+    public static String of(String equation){
+        if (equation != null) {
+            int length = equation.length();
+            char[] result = new char[length * 2];
+            int size = 0;
+            for (int index = 0;index < length; index++) {
+                char c = equation.charAt(index);
+                char previous = size == 0 ? ' ' : result[size - 1];
+                if (c == '+') {
+                    if (size > 0 && (previous == ')' || Character.isLetterOrDigit(previous) || previous == '_')) {
+                        result[size++] = c;
+                    }
+                }else if (c == ',') {
+                    result[size++] = '.';
+                }else if (c == '(') {
+                    if (Character.isDigit(previous) || previous == ')') result[size++] = '*';
+                    result[size++] = c;
+                } else if (c != ' ') {
+                    result[size++] = c;
+                }
+            }
+
+            return new String(result, 0, size);
+        }else return null;
+    }
+
+    /**
+     * 64-bit hash of canonical form (FNV-1a with final mixing), different canonical forms can have the same hash
+     *
+     * @param canonical form of equation from {@link #of(String)}
+     *
+     * @return hash of canonical form
+     * 0 if canonical == null
+     */
+    public static long hash(String canonical){
+        if (canonical == null) return 0;
+
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < canonical.length(); index++) {
+            hash ^= canonical.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
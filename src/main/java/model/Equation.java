@@ -34,9 +34,14 @@ public class Equation {
     public String getEquation(){return equation;}
     public double getResult(){return result;}
 
+    /**
+     * Same value as Objects.hash(id, equation, result), but without boxing and array of varargs
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id,equation,result);
+        int hash = 31 + Integer.hashCode(id);
+        hash = 31 * hash + Objects.hashCode(equation);
+        return 31 * hash + Double.hashCode(result);
     }
 
     @Override
@@ -0,0 +1,205 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Columnar in-memory table of equations
+ * Keeps ids and results in primitive arrays and texts of all equations in one UTF-8 byte array,
+ * so table of n equations is 4 objects instead of 3 * n objects of {@link Equation} with their strings
+ * Text of equation is decoded to string only by {@link #getEquation(int)}
+ * Isn't thread safe
+ *
+ * @see Equation
+ */
+public class EquationTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Expected number of bytes of text of one equation
+     */
+    private static final int BYTES_PER_EQUATION = 16;
+
+    /**
+     * Maximum length of array that JVM can allocate
+     */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private int[] ids;
+    private double[] results;
+
+    /**
+     * UTF-8 texts of all equations one after another,
+     * text of row is from offsets[row] (inclusive) to offsets[row + 1] (exclusive)
+     */
+    private byte[] text;
+    private int[] offsets;
+
+    private int size = 0;
+
+    public EquationTable(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity expected number of equations, arrays are allocated for them at once,
+     * so it MUST! be expected size of table and not upper bound of it
+     */
+    public EquationTable(int capacity){
+        capacity = Math.min(Math.max(capacity, 1), MAX_ARRAY_LENGTH - 1);
+        ids = new int[capacity];
+        results = new double[capacity];
+        offsets = new int[capacity + 1];
+        text = new byte[(int) Math.min((long) capacity * BYTES_PER_EQUATION, MAX_ARRAY_LENGTH)];
+    }
+
+    /**
+     * @param equations to copy to table, null equations are skipped
+     *
+     * @return table with equations in order of collection
+     */
+    public static EquationTable of(Collection<Equation> equations){
+        EquationTable table = new EquationTable(equations.size());
+        for (Equation equation : equations) {
+            if (equation != null) table.add(equation);
+        }
+        return table;
+    }
+
+    /**
+     * Adds equation to the end of table
+     *
+     * @param equation to add
+     */
+    public void add(Equation equation){
+        add(equation.getId(), equation.getEquation(), equation.getResult());
+    }
+
+    /**
+     * Adds equation to the end of table
+     *
+     * @param id of equation
+     * @param equation text of equation
+     * @param result of equation
+     */
+    public void add(int id, String equation, double result){
+        add(id, equation.getBytes(StandardCharsets.UTF_8), result);
+    }
+
+    /**
+     * Adds equation to the end of table without decoding of its text (for example text from DB)
+     *
+     * @param id of equation
+     * @param utf8 text of equation in UTF-8, it is copied
+     * @param result of equation
+     */
+    public void add(int id, byte[] utf8, double result){
+        if (size == ids.length) {
+            int capacity = (int) Math.min(size + (size >> 1) + 1L, MAX_ARRAY_LENGTH - 1);
+            ids = Arrays.copyOf(ids, capacity);
+            results = Arrays.copyOf(results, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+        }
+        int offset = offsets[size];
+        if (offset + utf8.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(offset + utf8.length, (int) Math.min(text.length + (long) (text.length >> 1), MAX_ARRAY_LENGTH)));
+        }
+
+        System.arraycopy(utf8, 0, text, offset, utf8.length);
+        ids[size] = id;
+        results[size] = result;
+        offsets[size + 1] = offset + utf8.length;
+        size++;
+    }
+
+    /**
+     * @return number of equations in table
+     */
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * @param row of table, MUST! be from 0 to {@link #size()} - 1
+     *
+     * @return id of equation in this row
+     */
+    public int getId(int row){
+        check(row);
+        return ids[row];
+    }
+
+    /**
+     * @param row of table, MUST! be from 0 to {@link #size()} - 1
+     *
+     * @return result of equation in this row
+     */
+    public double getResult(int row){
+        check(row);
+        return results[row];
+    }
+
+    /**
+     * @param row of table, MUST! be from 0 to {@link #size()} - 1
+     *
+     * @return text of equation in this row, it is decoded by every call
+     */
+    public String getEquation(int row){
+        check(row);
+        return new String(text, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param row of table, MUST! be from 0 to {@link #size()} - 1
+     *
+     * @return new equation object with values of this row
+     */
+    public Equation get(int row){
+        Equation equation = new Equation();
+        equation.setId(getId(row));
+        equation.setEquation(getEquation(row));
+        equation.setResult(results[row]);
+        return equation;
+    }
+
+    /**
+     * Binary search of id, ids of table MUST! be in ascending order (as in tables from DB)
+     *
+     * @param id of equation
+     *
+     * @return row of equation with this id
+     * -1 if table hasn't equation with this id
+     */
+    public int indexOf(int id){
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 ? -1 : row;
+    }
+
+    /**
+     * @return ids of all equations in order of rows
+     */
+    public int[] ids(){
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Frees unused capacity of arrays
+     */
+    public void trimToSize(){
+        if (ids.length > size) {
+            ids = Arrays.copyOf(ids, size);
+            results = Arrays.copyOf(results, size);
+            offsets = Arrays.copyOf(offsets, size + 1);
+        }
+        if (text.length > offsets[size]) text = Arrays.copyOf(text, offsets[size]);
+    }
+
+    private void check(int row){
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " is out of table of size " + size);
+    }
+}
@@ -0,0 +1,337 @@
+package repository;
+
+import model.Equation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Bulk export and import of all equations of {@link EquationRepository}
+ *
+ * Binary format (big-endian):
+ * header: int {@link #MAGIC}, int {@link #VERSION}, long number of equations
+ * equation: int length of equation in bytes, UTF-8 bytes of equation, double result, int id
+ * Binary files are written by positional writes of buffer of {@link #WRITE_BUFFER} bytes
+ * and read through memory mapped windows of {@link #WINDOW} bytes
+ *
+ * CSV format: header line "id,equation,result", then one equation per line,
+ * equation is quoted because it can contain comma
+ *
+ * Export reads equations by one cursor ({@link EquationRepository#forEach}),
+ * import saves equations by batches of {@link #BATCH_SIZE} in one transaction per batch
+ *
+ * Archive works with repository directly and doesn't fire events of services,
+ * so it is offline API: it MUST! NOT be used while services are opened with the same DB
+ * (index of service, table and memo wouldn't see imported equations), ArchiveApplication runs it from command line
+ *
+ * @see EquationRepository#addAll(java.util.Collection)
+ * @see EquationRepository#restoreAll(java.util.Collection)
+ */
+public final class EquationArchive {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EquationArchive.class);
+
+    public static final int MAGIC = 0x45514E53; // "EQNS"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_POSITION = 8;
+
+    static final int WINDOW = 64 * 1024 * 1024;
+    static final int WRITE_BUFFER = 1024 * 1024;
+    static final int BATCH_SIZE = 10_000;
+
+    private static final String CSV_HEADER = "id,equation,result";
+
+    private EquationArchive(){}
+
+    /**
+     * Writes all equations of repository to binary file
+     *
+     * @param repository with equations
+     * @param file to write, it is replaced if it exists
+     *
+     * @return number of written equations
+     *
+     * @throws IOException if file can't be written
+     */
+    public static long exportBinary(EquationRepository repository, Path file) throws IOException {
+        LOGGER.debug("Received a request to export equations to {}", file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ChannelWriter writer = new ChannelWriter(channel);
+            writer.reserve(HEADER_SIZE);
+            writer.buffer.putInt(MAGIC).putInt(VERSION).putLong(0L);
+
+            long[] count = new long[1];
+            try {
+                repository.forEach(equation -> {
+                    byte[] bytes = equation.getEquation().getBytes(StandardCharsets.UTF_8);
+                    try {
+                        writer.reserve(Integer.BYTES + bytes.length + Double.BYTES + Integer.BYTES);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    writer.buffer.putInt(bytes.length).put(bytes).putDouble(equation.getResult()).putInt(equation.getId());
+                    count[0]++;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            writer.flush();
+            ByteBuffer countBuffer = ByteBuffer.allocate(Long.BYTES).putLong(0, count[0]);
+            while (countBuffer.hasRemaining()) {
+                channel.write(countBuffer, COUNT_POSITION + countBuffer.position());
+            }
+
+            LOGGER.info("{} equations were exported to {}", count[0], file);
+            return count[0];
+        }
+    }
+
+    /**
+     * Reads equations from binary file and saves them to repository
+     *
+     * @param repository to save equations
+     * @param file to read
+     * @param keepIds true to save equations with ids from file (replaces equations with the same ids)
+     * false to save them as new equations
+     *
+     * @return number of saved equations
+     *
+     * @throws IOException if file can't be read or it isn't binary file of equations
+     */
+    public static long importBinary(EquationRepository repository, Path file, boolean keepIds) throws IOException {
+        LOGGER.debug("Received a request to import equations from {}", file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) throw new IOException("File is too short: " + file);
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) throw new IOException("File isn't binary file of equations: " + file);
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported version of file: " + version);
+            long count = header.getLong();
+
+            ArrayList<Equation> batch = new ArrayList<>(BATCH_SIZE);
+            long saved = 0;
+            long window = HEADER_SIZE;
+            MappedByteBuffer buffer = map(channel, window, fileSize);
+            try {
+                for (long index = 0; index < count; index++) {
+                    if (buffer.remaining() < Integer.BYTES
+                            || buffer.remaining() < Integer.BYTES + buffer.getInt(buffer.position()) + Double.BYTES + Integer.BYTES) {
+                        window += buffer.position();
+                        buffer = map(channel, window, fileSize);
+                    }
+
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    Equation equation = new Equation();
+                    equation.setEquation(new String(bytes, StandardCharsets.UTF_8));
+                    equation.setResult(buffer.getDouble());
+                    equation.setId(buffer.getInt());
+                    batch.add(equation);
+
+                    if (batch.size() == BATCH_SIZE) saved += save(repository, batch, keepIds);
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException ex) {
+                throw new IOException("File is damaged: " + file, ex);
+            }
+            saved += save(repository, batch, keepIds);
+
+            LOGGER.info("{} equations were imported from {}", saved, file);
+            return saved;
+        }
+    }
+
+    /**
+     * Writes all equations of repository to CSV file
+     *
+     * @param repository with equations
+     * @param file to write, it is replaced if it exists
+     *
+     * @return number of written equations
+     *
+     * @throws IOException if file can't be written
+     */
+    public static long exportCsv(EquationRepository repository, Path file) throws IOException {
+        LOGGER.debug("Received a request to export equations to {}", file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+             Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16)) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+
+            long count;
+            try {
+                count = repository.forEach(equation -> {
+                    try {
+                        writer.write(Integer.toString(equation.getId()));
+                        writer.write(",\"");
+                        writer.write(equation.getEquation().replace("\"", "\"\""));
+                        writer.write("\",");
+                        writer.write(Double.toString(equation.getResult()));
+                        writer.write('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            LOGGER.info("{} equations were exported to {}", count, file);
+            return count;
+        }
+    }
+
+    /**
+     * Reads equations from CSV file and saves them to repository
+     *
+     * @param repository to save equations
+     * @param file to read
+     * @param keepIds true to save equations with ids from file (replaces equations with the same ids)
+     * false to save them as new equations
+     *
+     * @return number of saved equations
+     *
+     * @throws IOException if file can't be read or it has incorrect lines
+     */
+    public static long importCsv(EquationRepository repository, Path file, boolean keepIds) throws IOException {
+        LOGGER.debug("Received a request to import equations from {}", file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), 1 << 16)) {
+            String line = reader.readLine();
+            if (!CSV_HEADER.equals(line)) throw new IOException("File isn't CSV file of equations: " + file);
+
+            ArrayList<Equation> batch = new ArrayList<>(BATCH_SIZE);
+            long saved = 0;
+            int number = 1;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isEmpty()) continue;
+
+                Equation equation = parseCsv(line);
+                if (equation == null) throw new IOException("Incorrect line " + number + " of file " + file);
+                batch.add(equation);
+
+                if (batch.size() == BATCH_SIZE) saved += save(repository, batch, keepIds);
+            }
+            saved += save(repository, batch, keepIds);
+
+            LOGGER.info("{} equations were imported from {}", saved, file);
+            return saved;
+        }
+    }
+
+    /**
+     * @param line of CSV file: id,"equation",result
+     *
+     * @return equation from line
+     * null if line is incorrect
+     */
+    static Equation parseCsv(String line){
+        int firstComma = line.indexOf(',');
+        int lastComma = line.lastIndexOf(',');
+        if (firstComma < 0 || lastComma <= firstComma) return null;
+
+        String text = line.substring(firstComma + 1, lastComma);
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            text = text.substring(1, text.length() - 1).replace("\"\"", "\"");
+        }
+
+        try {
+            Equation equation = new Equation();
+            equation.setId(Integer.parseInt(line.substring(0, firstComma).trim()));
+            equation.setEquation(text);
+            equation.setResult(Double.parseDouble(line.substring(lastComma + 1).trim()));
+            return equation;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Saves batch in one transaction and clears it
+     *
+     * @return number of saved equations
+     */
+    private static long save(EquationRepository repository, ArrayList<Equation> batch, boolean keepIds){
+        if (batch.isEmpty()) return 0;
+
+        long saved;
+        if (keepIds) {
+            saved = repository.restoreAll(batch);
+        } else {
+            saved = 0;
+            for (int id : repository.addAll(batch)) {
+                if (id > 0) saved++;
+            }
+        }
+        batch.clear();
+        return saved;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long fileSize) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, fileSize - position));
+    }
+
+    /**
+     * Writes file by positional writes of buffer, buffer is written when record doesn't fit in it
+     * File isn't mapped for writing: mapped windows would grow file past its data,
+     * and file with mapped windows can't be truncated on Windows while they aren't unmapped by GC
+     */
+    private static final class ChannelWriter {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+
+        /**
+         * Position in file of the first byte of buffer
+         */
+        private long position = 0;
+
+        ChannelWriter(FileChannel channel){
+            this.channel = channel;
+        }
+
+        /**
+         * Makes sure that buffer has place for size bytes
+         */
+        void reserve(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+                if (buffer.capacity() < size) buffer = ByteBuffer.allocateDirect(size);
+            }
+        }
+
+        /**
+         * Writes buffer to file
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
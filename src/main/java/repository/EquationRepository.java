@@ -1,17 +1,30 @@
 package repository;
 
 import model.Equation;
+import model.EquationTable;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository to storage of equations
  * @see EquationRepository_sql
  */
-public interface EquationRepository {
+public interface EquationRepository extends AutoCloseable {
+
+    /**
+     * Number of equations in one page of {@link #stream()}
+     */
+    int PAGE_SIZE = 1000;
 
     /**
      * Gets connection with DB
@@ -32,6 +45,91 @@ public interface EquationRepository {
      */
     ArrayList<Equation>getAll();
 
+    /**
+     * @return ids of all equations in ascending order
+     *
+     * @see EquationRepository_sql#ids()
+     */
+    int[] ids();
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return list of equations with id > afterId sorted by id
+     * empty list if limit <= 0 or if there are no equations after afterId
+     *
+     * @see EquationRepository_sql#page(int, int)
+     */
+    ArrayList<Equation>page(int afterId, int limit);
+
+    /**
+     * @return columnar table of all equations in order of ids
+     *
+     * @see EquationRepository_sql#table()
+     */
+    EquationTable table();
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return columnar table of equations with id > afterId sorted by id
+     * empty table if limit <= 0 or if there are no equations after afterId
+     *
+     * @see EquationRepository_sql#table(int, int)
+     */
+    EquationTable table(int afterId, int limit);
+
+    /**
+     * Applies action to all equations without loading all of them to memory
+     *
+     * @param action that applied to every equation in order of ids
+     *
+     * @return number of equations that action was applied to
+     *
+     * @see EquationRepository_sql#forEach(Consumer)
+     */
+    int forEach(Consumer<Equation> action);
+
+    /**
+     * Lazy stream of all equations in order of ids
+     * Equations are read by pages of {@link #PAGE_SIZE} through {@link #page(int, int)} when stream needs them,
+     * so stream doesn't keep connection or lock between pages
+     *
+     * @return stream of equations
+     */
+    default Stream<Equation> stream(){
+        Iterator<Equation> iterator = new Iterator<>() {
+            private Iterator<Equation> page = new ArrayList<Equation>().iterator();
+            private int lastId = 0;
+            private boolean lastPage = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !lastPage) {
+                    ArrayList<Equation> equations = page(lastId, PAGE_SIZE);
+                    lastPage = equations.size() < PAGE_SIZE;
+                    if (!equations.isEmpty()) lastId = equations.get(equations.size() - 1).getId();
+                    page = equations.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Equation next() {
+                hasNext();
+                return page.next();
+            }
+        };
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
     /**
      * @param id of equation who need to search
      *
@@ -54,8 +152,54 @@ public interface EquationRepository {
      */
     ArrayList<Equation>get(String condition, double result);
 
+    /**
+     * @param text that equation contains
+     *
+     * @param offset number of best equations that are skipped (equations of previous pages)
+     *
+     * @param limit maximum number of equations
+     *
+     * @return list of equations that contain text, best first
+     * empty list if text == null, text is empty or limit <= 0
+     *
+     * @see EquationRepository_sql#search(String, int, int)
+     */
+    ArrayList<Equation>search(String text, int offset, int limit);
+
+    /**
+     * @param equation text of equation in any form
+     *
+     * @return equation with the same canonical form
+     * null if equation == null or there is no such equation
+     *
+     * @see model.CanonicalForm
+     * @see EquationRepository_sql#find(String)
+     */
+    Equation find(String equation);
+
+    /**
+     * @return hashes of canonical forms of all equations
+     *
+     * @see model.CanonicalForm#hash(String)
+     * @see EquationRepository_sql#canonicalHashes()
+     */
+    long[] canonicalHashes();
+
+    /**
+     * @param from minimal result (inclusive)
+     *
+     * @param to maximal result (inclusive)
+     *
+     * @return list of equations with results from range
+     * empty list if from > to
+     *
+     * @see EquationRepository_sql#between(double, double)
+     */
+    ArrayList<Equation>between(double from, double to);
+
     /**
      * Adds new equation
+     * Sets generated id to equation
      *
      * @param equation to add
      *
@@ -66,6 +210,60 @@ public interface EquationRepository {
      */
     boolean add(Equation equation);
 
+    /**
+     * Adds equation if there is no equation with the same canonical form
+     *
+     * @param equation to add
+     *
+     * @return equation with the same canonical form that was added before
+     * equation from @param with generated id if it was added
+     * null if equation == null or it wasn't added
+     *
+     * @see model.CanonicalForm
+     * @see EquationRepository_sql#addOrGet(Equation)
+     */
+    Equation addOrGet(Equation equation);
+
+    /**
+     * Adds all equations that haven't equation with the same canonical form at once
+     * Equations of collection with the same canonical form are added once
+     *
+     * @param equations to add
+     *
+     * @return equations in order of collection: equation with the same canonical form that was added before
+     * or equation from collection with generated id if it was added
+     * null for equation that is null or wasn't added
+     *
+     * @see model.CanonicalForm
+     * @see EquationRepository_sql#addOrGetAll(Collection)
+     */
+    Equation[] addOrGetAll(Collection<Equation> equations);
+
+    /**
+     * Adds all equations at once
+     * Sets generated ids to equations
+     *
+     * @param equations to add
+     *
+     * @return ids of added equations in order of collection
+     * -1 for equation that wasn't added
+     *
+     * @see EquationRepository_sql#addAll(Collection)
+     */
+    int[] addAll(Collection<Equation> equations);
+
+    /**
+     * Adds all equations with their own ids at once (for restoring of backup)
+     * Equation with the same id is replaced
+     *
+     * @param equations to restore
+     *
+     * @return number of restored equations
+     *
+     * @see EquationRepository_sql#restoreAll(Collection)
+     */
+    int restoreAll(Collection<Equation> equations);
+
     /**
      * Changes equation with id of equation from @param
      *
@@ -78,6 +276,18 @@ public interface EquationRepository {
      */
     boolean set(Equation equation);
 
+    /**
+     * Changes all equations with ids of equations from collection at once
+     *
+     * @param equations to change
+     *
+     * @return true for every equation that was changed in order of collection
+     * false for equation that wasn't changed
+     *
+     * @see EquationRepository_sql#setAll(Collection)
+     */
+    boolean[] setAll(Collection<Equation> equations);
+
     /**
      * Removes equation with this id
      *
@@ -89,4 +299,24 @@ public interface EquationRepository {
      * @see EquationRepository_sql#remove(int)
      */
     boolean remove(int id);
+
+    /**
+     * Removes all equations with this ids at once
+     *
+     * @param ids of equations who need to removed
+     *
+     * @return true for every equation that was removed in order of ids
+     * false for equation that wasn't removed
+     *
+     * @see EquationRepository_sql#removeAll(int[])
+     */
+    boolean[] removeAll(int[] ids);
+
+    /**
+     * Releases resources of repository (connections, statements)
+     *
+     * @see EquationRepository_sql#close()
+     */
+    @Override
+    default void close() {}
 }
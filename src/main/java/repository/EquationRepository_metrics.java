@@ -0,0 +1,331 @@
+package repository;
+
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.Equation;
+import model.EquationTable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of {@link EquationRepository} that records counts, errors and latencies of other {@link EquationRepository}
+ * Operations: repository.getAll, repository.ids, repository.page, repository.table (all and page), repository.forEach, repository.get,
+ * repository.search (get by condition and between), repository.textSearch, repository.find, repository.canonicalHashes,
+ * repository.add, repository.addOrGet, repository.addOrGetAll, repository.addAll, repository.restoreAll,
+ * repository.set, repository.setAll, repository.remove, repository.removeAll
+ * Error is thrown exception or result false/null (for get, add, addOrGet, set, remove)
+ *
+ * @see MetricsRegistry
+ */
+public class EquationRepository_metrics implements EquationRepository {
+    private final EquationRepository repository;
+
+    private final OperationMetrics getAll, ids, page, table, forEach, get, search, textSearch, find, canonicalHashes,
+            add, addOrGet, addOrGetAll, addAll, restoreAll, set, setAll, remove, removeAll;
+
+    public EquationRepository_metrics(EquationRepository repository){
+        this(repository, MetricsRegistry.DEFAULT);
+    }
+
+    /**
+     * @param repository whose calls are recorded
+     * @param registry to record
+     */
+    public EquationRepository_metrics(EquationRepository repository, MetricsRegistry registry){
+        this.repository = repository;
+        this.getAll = registry.operation("repository.getAll");
+        this.ids = registry.operation("repository.ids");
+        this.page = registry.operation("repository.page");
+        this.table = registry.operation("repository.table");
+        this.forEach = registry.operation("repository.forEach");
+        this.get = registry.operation("repository.get");
+        this.search = registry.operation("repository.search");
+        this.textSearch = registry.operation("repository.textSearch");
+        this.find = registry.operation("repository.find");
+        this.canonicalHashes = registry.operation("repository.canonicalHashes");
+        this.add = registry.operation("repository.add");
+        this.addOrGet = registry.operation("repository.addOrGet");
+        this.addOrGetAll = registry.operation("repository.addOrGetAll");
+        this.addAll = registry.operation("repository.addAll");
+        this.restoreAll = registry.operation("repository.restoreAll");
+        this.set = registry.operation("repository.set");
+        this.setAll = registry.operation("repository.setAll");
+        this.remove = registry.operation("repository.remove");
+        this.removeAll = registry.operation("repository.removeAll");
+    }
+
+    @Override
+    public ArrayList<Equation> getAll() {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            ArrayList<Equation> result = repository.getAll();
+            error = false;
+            return result;
+        } finally {
+            getAll.record(start, error);
+        }
+    }
+
+    @Override
+    public int[] ids() {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            int[] result = repository.ids();
+            error = false;
+            return result;
+        } finally {
+            ids.record(start, error);
+        }
+    }
+
+    @Override
+    public ArrayList<Equation> page(int afterId, int limit) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            ArrayList<Equation> result = repository.page(afterId, limit);
+            error = false;
+            return result;
+        } finally {
+            page.record(start, error);
+        }
+    }
+
+    @Override
+    public EquationTable table() {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            EquationTable result = repository.table();
+            error = false;
+            return result;
+        } finally {
+            table.record(start, error);
+        }
+    }
+
+    @Override
+    public EquationTable table(int afterId, int limit) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            EquationTable result = repository.table(afterId, limit);
+            error = false;
+            return result;
+        } finally {
+            table.record(start, error);
+        }
+    }
+
+    @Override
+    public int forEach(Consumer<Equation> action) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            int result = repository.forEach(action);
+            error = false;
+            return result;
+        } finally {
+            forEach.record(start, error);
+        }
+    }
+
+    @Override
+    public Equation get(int id) {
+        long start = OperationMetrics.start();
+        Equation result = null;
+        try {
+            result = repository.get(id);
+            return result;
+        } finally {
+            get.record(start, result == null);
+        }
+    }
+
+    @Override
+    public ArrayList<Equation> get(String condition, double result) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            ArrayList<Equation> equations = repository.get(condition, result);
+            error = false;
+            return equations;
+        } finally {
+            search.record(start, error);
+        }
+    }
+
+    @Override
+    public ArrayList<Equation> between(double from, double to) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            ArrayList<Equation> result = repository.between(from, to);
+            error = false;
+            return result;
+        } finally {
+            search.record(start, error);
+        }
+    }
+
+    @Override
+    public ArrayList<Equation> search(String text, int offset, int limit) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            ArrayList<Equation> result = repository.search(text, offset, limit);
+            error = false;
+            return result;
+        } finally {
+            textSearch.record(start, error);
+        }
+    }
+
+    @Override
+    public Equation find(String equation) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            Equation result = repository.find(equation);
+            error = false;
+            return result;
+        } finally {
+            find.record(start, error);
+        }
+    }
+
+    @Override
+    public long[] canonicalHashes() {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            long[] result = repository.canonicalHashes();
+            error = false;
+            return result;
+        } finally {
+            canonicalHashes.record(start, error);
+        }
+    }
+
+    @Override
+    public Equation addOrGet(Equation equation) {
+        long start = OperationMetrics.start();
+        Equation result = null;
+        try {
+            result = repository.addOrGet(equation);
+            return result;
+        } finally {
+            addOrGet.record(start, result == null);
+        }
+    }
+
+    @Override
+    public boolean add(Equation equation) {
+        long start = OperationMetrics.start();
+        boolean result = false;
+        try {
+            result = repository.add(equation);
+            return result;
+        } finally {
+            add.record(start, !result);
+        }
+    }
+
+    @Override
+    public Equation[] addOrGetAll(Collection<Equation> equations) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            Equation[] result = repository.addOrGetAll(equations);
+            error = false;
+            return result;
+        } finally {
+            addOrGetAll.record(start, error);
+        }
+    }
+
+    @Override
+    public int[] addAll(Collection<Equation> equations) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            int[] result = repository.addAll(equations);
+            error = false;
+            return result;
+        } finally {
+            addAll.record(start, error);
+        }
+    }
+
+    @Override
+    public int restoreAll(Collection<Equation> equations) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            int result = repository.restoreAll(equations);
+            error = false;
+            return result;
+        } finally {
+            restoreAll.record(start, error);
+        }
+    }
+
+    @Override
+    public boolean set(Equation equation) {
+        long start = OperationMetrics.start();
+        boolean result = false;
+        try {
+            result = repository.set(equation);
+            return result;
+        } finally {
+            set.record(start, !result);
+        }
+    }
+
+    @Override
+    public boolean[] setAll(Collection<Equation> equations) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            boolean[] result = repository.setAll(equations);
+            error = false;
+            return result;
+        } finally {
+            setAll.record(start, error);
+        }
+    }
+
+    @Override
+    public boolean remove(int id) {
+        long start = OperationMetrics.start();
+        boolean result = false;
+        try {
+            result = repository.remove(id);
+            return result;
+        } finally {
+            remove.record(start, !result);
+        }
+    }
+
+    @Override
+    public boolean[] removeAll(int[] ids) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            boolean[] result = repository.removeAll(ids);
+            error = false;
+            return result;
+        } finally {
+            removeAll.record(start, error);
+        }
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+}
@@ -1,31 +1,121 @@
 package repository;
 
+import metrics.Tracer;
+import model.CanonicalForm;
 import model.Equation;
+import model.EquationTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import service.MathParser;
+import service.MathParserService;
 
 import javax.swing.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Implementation of {@link EquationRepository}
+ * Keeps long-lived connection with DB and caches prepared statements for every request
+ * If {@link StorageProfile} sets WAL journal mode, reads use own connection, so they don't wait writes
+ * MUST! be closed by {@link #close()} after using
  */
 public class EquationRepository_sql implements EquationRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(EquationRepository_sql.class);
 
+    /**
+     * Traces sampled requests with number of equations and time instead of logging every request
+     *
+     * @see Tracer#SAMPLING_PROPERTY
+     */
+    private static final Tracer TRACER = Tracer.of(EquationRepository_sql.class);
+
     private static final String OOPS = "Oops!";
 
+    /**
+     * Number of rows that cursor of {@link #forEach(Consumer)} reads from DB at once
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_ALL = "SELECT * FROM equations ORDER BY id;";
+    private static final String SELECT_IDS = "SELECT id FROM equations ORDER BY id;";
+    private static final String SELECT_PAGE = "SELECT * FROM equations WHERE id > ? ORDER BY id LIMIT ?;";
+    private static final String SELECT_BY_ID = "SELECT * FROM equations WHERE id = ?;";
+    private static final String SELECT_BY_RESULT = "SELECT * FROM equations WHERE result %s ? ORDER BY id;";
+    private static final String SELECT_BETWEEN = "SELECT * FROM equations WHERE result BETWEEN ? AND ? ORDER BY id;";
+    private static final String SELECT_CANONICAL_HASHES = "SELECT canonical_hash FROM equations WHERE canonical_hash IS NOT NULL ORDER BY id;";
+    private static final String SELECT_BY_CANONICAL = "SELECT * FROM equations WHERE canonical_hash = ? ORDER BY id;";
+    private static final String INSERT = "INSERT INTO equations (equation, result, canonical_hash) VALUES (?, ?, ?);";
+    private static final String SELECT_TEXT = """
+            SELECT equations.* FROM equations_text JOIN equations ON equations.id = equations_text.rowid
+             WHERE equations_text MATCH ? ORDER BY rank, equations.id LIMIT ? OFFSET ?;""";
+    private static final String SELECT_TEXT_SCAN = """
+            SELECT * FROM equations WHERE instr(lower(equation), lower(?)) > 0
+             ORDER BY length(equation), id LIMIT ? OFFSET ?;""";
+    private static final String RESTORE = """
+            INSERT INTO equations (id, equation, result, canonical_hash) VALUES (?, ?, ?, ?)
+             ON CONFLICT (id) DO UPDATE SET equation = excluded.equation, result = excluded.result,
+             canonical_hash = excluded.canonical_hash;""";
+    private static final String UPDATE = "UPDATE equations SET equation = ?, result = ?, canonical_hash = ? WHERE id = ?;";
+    private static final String DELETE = "DELETE FROM equations WHERE id = ?;";
+    private static final String LAST_ID = "SELECT last_insert_rowid();";
+
+    /**
+     * Minimal length of text that can be found by trigram index, shorter texts are searched by scan of table
+     */
+    private static final int TRIGRAM = 3;
+
+    /**
+     * Version of DB that is kept in PRAGMA user_version
+     * DB of older version is migrated when it is opened, results of its equations are checked by {@link #PARSER}
+     * MUST! be increased when parser starts to calculate some equations in other way
+     * 1 - canonical forms, results of older parser are repaired
+     *
+     * @see #createCanonicalIndexIfNotExists()
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Parser that checks results of equations that weren't saved by this version of repository
+     */
+    private static final MathParserService PARSER = new MathParser();
+
     private String dbUrl, dbUser, dbPassword;
 
+    /**
+     * true if DB has full-text index of equations (SQLite was built with FTS5)
+     */
+    private boolean textIndex = false;
+
+    /**
+     * Settings of SQLite that applied to every connection
+     */
+    private StorageProfile profile = StorageProfile.DEFAULT;
+
+    /**
+     * Session for all changes of DB
+     */
+    private SqlSession writer;
+
+    /**
+     * Session for reads of DB
+     * the same as {@link #writer} if journal mode isn't WAL
+     */
+    private SqlSession reader;
+
     public EquationRepository_sql(){
         getProperties();
+        createSessions();
         createTableIfNotExists();
     }
 
@@ -37,9 +127,23 @@ public class EquationRepository_sql implements EquationRepository {
      * @param password of DB
      */
     public EquationRepository_sql(String url, String user, String password){
+        this(url, user, password, StorageProfile.DEFAULT);
+    }
+
+    /**
+     * This constructor for Tests
+     *
+     * @param url of DB
+     * @param user of DB
+     * @param password of DB
+     * @param profile settings of SQLite
+     */
+    public EquationRepository_sql(String url, String user, String password, StorageProfile profile){
         dbUrl = url;
         dbUser = user;
         dbPassword = password;
+        this.profile = profile;
+        createSessions();
         createTableIfNotExists();
     }
 
@@ -72,6 +176,7 @@ public class EquationRepository_sql implements EquationRepository {
                 dbUrl = properties.getProperty("jdbc.URL");
                 dbUser = properties.getProperty("jdbc.USER");
                 dbPassword = properties.getProperty("jdbc.PASSWORD");
+                profile = StorageProfile.fromProperties(properties);
 
                 LOGGER.info("Properties file was read successful.");
                 LOGGER.debug("DB URL = {}", dbUrl);
@@ -96,21 +201,332 @@ public class EquationRepository_sql implements EquationRepository {
     private void createTableIfNotExists(){
         LOGGER.debug("Received a request to create a new table if it doesn't exist");
 
+        synchronized (writer) {
+            String sql = """
+                    CREATE TABLE IF NOT EXISTS equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""";
+
+            try (Statement statement = writer.connection().createStatement()){
+                int result = statement.executeUpdate(sql);
+
+                if (result>0) LOGGER.info("New table \"equations\" was create");
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+        }
+
+        createResultIndexIfNotExists();
+        createTextIndexIfNotExists();
+        createCanonicalIndexIfNotExists();
+    }
+
+    /**
+     * Creates index on results of equations, so search by result doesn't scan whole table
+     * Runs for every DB, so DB that was created before index is migrated too
+     *
+     * @see #get(String, double)
+     * @see #between(double, double)
+     */
+    private void createResultIndexIfNotExists(){
+        LOGGER.debug("Received a request to create index on results if it doesn't exist");
+
+        synchronized (writer) {
+            String exists = "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = 'equations_result';";
+            String sql = "CREATE INDEX IF NOT EXISTS equations_result ON equations (result);";
+
+            try (Statement statement = writer.connection().createStatement()){
+                boolean created;
+                try (ResultSet resultSet = statement.executeQuery(exists)) {
+                    created = resultSet.next();
+                }
+
+                if (!created) {
+                    statement.executeUpdate(sql);
+                    statement.executeUpdate("ANALYZE equations;");
+                    LOGGER.info("New index \"equations_result\" was create");
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+        }
+    }
+
+    /**
+     * Creates full-text index of equations with trigram tokenizer and triggers that keep it in sync with table
+     * Index doesn't keep copy of texts, it reads them from table "equations"
+     * Runs for every DB, index of DB that was created before it (or lost its triggers) is rebuilt
+     *
+     * @see #search(String, int, int)
+     */
+    private void createTextIndexIfNotExists(){
+        LOGGER.debug("Received a request to create full-text index if it doesn't exist");
+
+        synchronized (writer) {
+            String exists = """
+                    SELECT count(*) FROM sqlite_master WHERE name IN
+                     ('equations_text', 'equations_text_insert', 'equations_text_delete', 'equations_text_update');""";
+            String[] sql = new String[]{
+                    """
+                    CREATE VIRTUAL TABLE IF NOT EXISTS equations_text
+                     USING fts5(equation, content = 'equations', content_rowid = 'id', tokenize = 'trigram');""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS equations_text_insert AFTER INSERT ON equations BEGIN
+                     INSERT INTO equations_text (rowid, equation) VALUES (new.id, new.equation);
+                    END;""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS equations_text_delete AFTER DELETE ON equations BEGIN
+                     INSERT INTO equations_text (equations_text, rowid, equation) VALUES ('delete', old.id, old.equation);
+                    END;""",
+                    """
+                    CREATE TRIGGER IF NOT EXISTS equations_text_update AFTER UPDATE OF equation ON equations BEGIN
+                     INSERT INTO equations_text (equations_text, rowid, equation) VALUES ('delete', old.id, old.equation);
+                     INSERT INTO equations_text (rowid, equation) VALUES (new.id, new.equation);
+                    END;"""};
+
+            try (Statement statement = writer.connection().createStatement()){
+                int count;
+                try (ResultSet resultSet = statement.executeQuery(exists)) {
+                    count = resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+
+                if (count < 4) {
+                    for (String request : sql) statement.executeUpdate(request);
+                    statement.executeUpdate("INSERT INTO equations_text (equations_text) VALUES ('rebuild');");
+                    LOGGER.info("Full-text index \"equations_text\" was create");
+                }
+                textIndex = true;
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+        }
+    }
+
+    /**
+     * Adds column "canonical_hash" with hash of canonical form of equation and index on it
+     * Column is filled for rows that haven't it (rows of old DB or rows that were inserted not by this repository)
+     * When DB is older than {@link #VERSION}, results of all equations are checked by {@link #PARSER}
+     * and equations with the same canonical form and result are merged (only first of them stays)
+     * All changes of migration and new version of DB are committed by one transaction,
+     * so migration that was interrupted runs again when DB is opened next time
+     *
+     * @see CanonicalForm
+     * @see #addOrGet(Equation)
+     * @see #find(String)
+     */
+    private void createCanonicalIndexIfNotExists(){
+        LOGGER.debug("Received a request to create index on canonical forms if it doesn't exist");
+
+        synchronized (writer) {
+            try (Statement statement = writer.connection().createStatement()){
+                int version;
+                try (ResultSet resultSet = statement.executeQuery("PRAGMA user_version;")) {
+                    version = resultSet.next() ? resultSet.getInt(1) : 0;
+                }
+                boolean exists = false;
+                try (ResultSet resultSet = statement.executeQuery("PRAGMA table_info(equations);")) {
+                    while (resultSet.next()) {
+                        if ("canonical_hash".equals(resultSet.getString("name"))) exists = true;
+                    }
+                }
+
+                boolean migration = version < VERSION;
+                boolean columnExists = exists;
+                int[] changed = new int[3];
+                boolean committed = transaction(() -> {
+                    if (!columnExists) statement.executeUpdate("ALTER TABLE equations ADD COLUMN canonical_hash integer;");
+                    statement.executeUpdate("CREATE INDEX IF NOT EXISTS equations_canonical ON equations (canonical_hash);");
+
+                    checkRows(migration, changed);
+                    if (migration) {
+                        changed[2] = deduplicate();
+                        statement.executeUpdate("PRAGMA user_version = " + VERSION + ";");
+                    }
+                });
+
+                if (committed) {
+                    if (!columnExists) LOGGER.info("New column \"canonical_hash\" was create");
+                    if (changed[0] > 0) LOGGER.info("Canonical hashes were set to {} equations", changed[0]);
+                    if (changed[1] > 0) LOGGER.info("Results of {} equations were repaired", changed[1]);
+                    if (changed[2] > 0) LOGGER.info("{} duplicates of equations were removed", changed[2]);
+                    if (migration) LOGGER.info("DB was migrated from version {} to version {}", version, VERSION);
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+        }
+    }
+
+    /**
+     * Sets hash of canonical form to rows without it and repairs results that differ from results of {@link #PARSER}
+     * Rows that parser can't calculate are kept as they are
+     * MUST! be called in transaction under lock of {@link #writer}
+     *
+     * @param all true if all rows are checked
+     * false if only rows without hash are checked
+     * @param changed [0] gets number of rows that got hash, [1] gets number of rows whose results were repaired
+     */
+    private void checkRows(boolean all, int[] changed) throws SQLException {
+        String sql = all
+                ? "SELECT id, equation, result, canonical_hash FROM equations;"
+                : "SELECT id, equation, result, canonical_hash FROM equations WHERE canonical_hash IS NULL;";
+
+        ArrayList<Integer> ids = new ArrayList<>();
+        ArrayList<Long> hashes = new ArrayList<>();
+        ArrayList<Double> results = new ArrayList<>();
+        try (Statement statement = writer.connection().createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                int id = resultSet.getInt(1);
+                String equation = resultSet.getString(2);
+                double result = resultSet.getDouble(3);
+                resultSet.getLong(4);
+                boolean hashed = !resultSet.wasNull();
+
+                String calculated = PARSER.calculate(equation);
+                double expected = calculated == null ? Double.NaN : Double.parseDouble(calculated);
+                boolean repaired = false;
+                if (!Double.isFinite(expected)) {
+                    LOGGER.warn("Result of equation \"{}\" with id {} can't be checked by parser, it is kept", equation, id);
+                } else if (Double.compare(expected, result) != 0) {
+                    LOGGER.warn("Result {} of equation \"{}\" with id {} differs from result of parser, it is repaired to {}",
+                            result, equation, id, expected);
+                    result = expected;
+                    repaired = true;
+                }
+
+                if (!hashed || repaired) {
+                    ids.add(id);
+                    hashes.add(hash(equation));
+                    results.add(result);
+                    if (!hashed) changed[0]++;
+                    if (repaired) changed[1]++;
+                }
+            }
+        }
+        if (ids.isEmpty()) return;
+
+        try (PreparedStatement statement = writer.connection().prepareStatement(
+                "UPDATE equations SET canonical_hash = ?, result = ? WHERE id = ?;")) {
+            for (int index = 0; index < ids.size(); index++) {
+                statement.setLong(1, hashes.get(index));
+                statement.setDouble(2, results.get(index));
+                statement.setInt(3, ids.get(index));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Removes equations whose canonical form and result are the same as of equation with less id
+     * Equations with the same canonical form, but other result are kept
+     * MUST! be called in transaction under lock of {@link #writer} after {@link #checkRows(boolean, int[])}
+     *
+     * @return number of removed equations
+     */
+    private int deduplicate() throws SQLException {
         String sql = """
-                CREATE TABLE IF NOT EXISTS equations
-                 (id integer NOT NULL UNIQUE,
-                 equation test NOT NULL,
-                 result real NOT NULL,
-                 PRIMARY KEY ("id" AUTOINCREMENT));""";
+                SELECT id, equation, result, canonical_hash FROM equations WHERE canonical_hash IN
+                 (SELECT canonical_hash FROM equations GROUP BY canonical_hash HAVING count(*) > 1)
+                 ORDER BY canonical_hash, id;""";
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement()){
-            int result = statement.executeUpdate(sql);
+        ArrayList<Integer> duplicates = new ArrayList<>();
+        try (Statement statement = writer.connection().createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            HashMap<String, Equation> forms = new HashMap<>();
+            long hash = 0;
+            while (resultSet.next()) {
+                if (forms.isEmpty() || resultSet.getLong(4) != hash) {
+                    hash = resultSet.getLong(4);
+                    forms.clear();
+                }
+                Equation equation = equation(resultSet);
+                Equation first = forms.putIfAbsent(CanonicalForm.of(equation.getEquation()), equation);
+                if (first == null) continue;
 
-            if (result>0) LOGGER.info("New table \"equations\" was create");
+                if (Double.compare(first.getResult(), equation.getResult()) == 0) {
+                    duplicates.add(equation.getId());
+                } else {
+                    LOGGER.warn("Equation \"{}\" with id {} is the same as equation with id {}, but its result {} differs from {}, it is kept",
+                            equation.getEquation(), equation.getId(), first.getId(), equation.getResult(), first.getResult());
+                }
+            }
+        }
+        if (duplicates.isEmpty()) return 0;
+
+        PreparedStatement statement = writer.statement(DELETE);
+        for (int id : duplicates) {
+            statement.setInt(1, id);
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        return duplicates.size();
+    }
+
+    /**
+     * @return hash of canonical form of equation
+     */
+    private static long hash(String equation){
+        return CanonicalForm.hash(CanonicalForm.of(equation));
+    }
+
+    /**
+     * Creates {@link #writer} and {@link #reader}
+     * reader has own connection only in WAL journal mode, in other modes readers block writers anyway
+     */
+    private void createSessions(){
+        writer = new SqlSession("writer", this::openConnection);
+        reader = profile.isWal() ? new SqlSession("reader", this::openConnection) : writer;
+    }
+
+    /**
+     * Opens connection with DB and applies {@link #profile} to it
+     *
+     * @return new connection with DB
+     *
+     * @throws SQLException if DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    private Connection openConnection() throws SQLException {
+        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
+        Connection connection = getConnection(dbUrl, dbUser, dbPassword);
+        try {
+            profile.apply(connection);
+            LOGGER.info("Storage profile of DB: {}", StorageProfile.report(connection));
         } catch (SQLException ex) {
-            LOGGER.error("Exception was thrown:", ex);
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+
+    /**
+     * @return equation from current row of resultSet
+     */
+    private static Equation equation(ResultSet resultSet) throws SQLException {
+        Equation equation = new Equation();
+        equation.setId(resultSet.getInt("id"));
+        equation.setEquation(resultSet.getString("equation"));
+        equation.setResult(resultSet.getDouble("result"));
+        return equation;
+    }
+
+    /**
+     * Closes all prepared statements and connections with DB
+     */
+    @Override
+    public void close() {
+        LOGGER.debug("Received a request to close connection with DB");
+
+        synchronized (reader) {
+            reader.close();
+        }
+        synchronized (writer) {
+            writer.close();
         }
     }
 
@@ -122,29 +538,205 @@ public class EquationRepository_sql implements EquationRepository {
      */
     @Override
     public ArrayList<Equation> getAll() {
-        LOGGER.debug("Received a request to get list of all equations from DB");
+        long trace = TRACER.start();
+
+        synchronized (reader) {
+            ArrayList<Equation> equations = new ArrayList<>();
+
+            try (ResultSet resultSet = reader.statement(SELECT_ALL).executeQuery()){
+                while (resultSet.next()){
+                    equations.add(equation(resultSet));
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "getAll", equations.size());
+            return equations;
+        }
+    }
+
+    /**
+     * @return ids of all equations in ascending order
+     * empty array if DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public int[] ids() {
+        long trace = TRACER.start();
+
+        synchronized (reader) {
+            int[] ids = new int[FETCH_SIZE];
+            int size = 0;
+            try (ResultSet resultSet = reader.statement(SELECT_IDS).executeQuery()){
+                while (resultSet.next()){
+                    if (size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1));
+                    ids[size++] = resultSet.getInt(1);
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "ids", size);
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * Keyset pagination: next page starts after last id of previous page, so every page is read by primary key
+     *
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return list of equations with id > afterId sorted by id
+     * empty list if limit <= 0, if there are no equations after afterId or DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public ArrayList<Equation> page(int afterId, int limit) {
+        long trace = TRACER.start();
 
         ArrayList<Equation> equations = new ArrayList<>();
-        String sql = "SELECT * FROM equations;";
+        if (limit <= 0) return equations;
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery(sql)){
-            while (resultSet.next()){
-                Equation equation = new Equation();
-                equation.setId(resultSet.getInt("id"));
-                equation.setEquation(resultSet.getString("equation"));
-                equation.setResult(resultSet.getDouble("result"));
-                equations.add(equation);
+        synchronized (reader) {
+            try {
+                PreparedStatement statement = reader.statement(SELECT_PAGE);
+                statement.setInt(1, afterId);
+                statement.setInt(2, limit);
+                try (ResultSet resultSet = statement.executeQuery()){
+                    while (resultSet.next()){
+                        equations.add(equation(resultSet));
+                    }
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
             }
 
-            LOGGER.debug("Received list: {}", equations);
-        } catch (SQLException ex) {
-            LOGGER.error("Exception was thrown:", ex);
+            TRACER.end(trace, "page", equations.size());
+            return equations;
         }
+    }
 
-        return equations;
+    /**
+     * Reads all equations by one cursor directly to columns of table, without objects of equations
+     *
+     * @return columnar table of all equations in order of ids
+     * empty table if DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public EquationTable table() {
+        long trace = TRACER.start();
+
+        synchronized (reader) {
+            EquationTable table = new EquationTable(FETCH_SIZE);
+            try (Statement statement = reader.connection().createStatement()){
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(SELECT_ALL)){
+                    readTable(resultSet, table);
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            table.trimToSize();
+            TRACER.end(trace, "table", table.size());
+            return table;
+        }
+    }
+
+    /**
+     * Keyset pagination as {@link #page(int, int)}, but equations are read directly to columns of table
+     *
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return columnar table of equations with id > afterId sorted by id
+     * empty table if limit <= 0, if there are no equations after afterId or DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public EquationTable table(int afterId, int limit) {
+        long trace = TRACER.start();
+
+        if (limit <= 0) return new EquationTable(0);
+
+        synchronized (reader) {
+            EquationTable table = new EquationTable(Math.min(limit, FETCH_SIZE));
+            try {
+                PreparedStatement statement = reader.statement(SELECT_PAGE);
+                statement.setInt(1, afterId);
+                statement.setInt(2, limit);
+                try (ResultSet resultSet = statement.executeQuery()){
+                    readTable(resultSet, table);
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "tablePage", table.size());
+            return table;
+        }
+    }
+
+    /**
+     * Adds all rows of result set to table, text of equations is read as UTF-8 bytes without decoding to strings
+     */
+    private static void readTable(ResultSet resultSet, EquationTable table) throws SQLException {
+        // result set without rows is already closed, so columns are found after first row
+        if (!resultSet.next()) return;
+
+        int id = resultSet.findColumn("id");
+        int equation = resultSet.findColumn("equation");
+        int result = resultSet.findColumn("result");
+        do {
+            byte[] text = resultSet.getBytes(equation);
+            table.add(resultSet.getInt(id), text == null ? new byte[0] : text, resultSet.getDouble(result));
+        } while (resultSet.next());
+    }
+
+    /**
+     * Reads all equations by one cursor, only {@link #FETCH_SIZE} rows are in memory at once
+     * Reads wait until action is applied to all equations, so action shouldn't be long
+     *
+     * @param action that applied to every equation in order of ids
+     *
+     * @return number of equations that action was applied to
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public int forEach(Consumer<Equation> action) {
+        long trace = TRACER.start();
+
+        if (action == null) return 0;
+
+        synchronized (reader) {
+            int count = 0;
+            try (Statement statement = reader.connection().createStatement()){
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(SELECT_ALL)){
+                    while (resultSet.next()){
+                        action.accept(equation(resultSet));
+                        count++;
+                    }
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "forEach", count);
+            return count;
+        }
     }
 
     /**
@@ -157,29 +749,24 @@ public class EquationRepository_sql implements EquationRepository {
      */
     @Override
     public Equation get(int id) {
-        LOGGER.debug("Received a request to get equation with id = {}", id);
+        long trace = TRACER.start();
 
-        String sql = "SELECT * FROM equations WHERE id = " + id + ";";
-        Equation equation = null;
+        synchronized (reader) {
+            Equation equation = null;
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery(sql)){
-
-            if (resultSet.next()) {
-                equation = new Equation();
-                equation.setId(resultSet.getInt("id"));
-                equation.setEquation(resultSet.getString("equation"));
-                equation.setResult(resultSet.getDouble("result"));
+            try {
+                PreparedStatement statement = reader.statement(SELECT_BY_ID);
+                statement.setInt(1, id);
+                try (ResultSet resultSet = statement.executeQuery()){
+                    if (resultSet.next()) equation = equation(resultSet);
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
             }
 
-        } catch (SQLException ex) {
-            LOGGER.error("Exception was thrown:", ex);
+            TRACER.end(trace, "get", equation == null ? 0 : 1);
+            return equation;
         }
-
-        LOGGER.debug("Received equation: {}", equation);
-        return equation;
     }
 
     /**
@@ -191,42 +778,295 @@ public class EquationRepository_sql implements EquationRepository {
      * empty list if condition == null, if condition has incorrect characters or DB wasn't found
      *
      * @see #dbUrl
+     * @see #createResultIndexIfNotExists()
      */
+    @Override
     public ArrayList<Equation>get(String condition, double result){
-        LOGGER.debug("A request was received to obtain a list of equations that match the condition: result {} {}", condition, result);
+        long trace = TRACER.start();
+
+        synchronized (reader) {
+            ArrayList<Equation>equations = new ArrayList<>();
+
+            if (condition != null) {
+                if (condition.equals("<") || condition.equals("<=") || condition.equals("=")
+                        || condition.equals(">=") || condition.equals(">")) {
+                    try {
+                        PreparedStatement statement = reader.statement(String.format(SELECT_BY_RESULT, condition));
+                        statement.setDouble(1, result);
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                equations.add(equation(resultSet));
+                            }
+                        }
+                    } catch (SQLException ex) {
+                        LOGGER.error("Exception was thrown:", ex);
+                    }
+                }
+            }
+
+            TRACER.end(trace, "search", equations.size(), condition);
+            return equations;
+        }
+    }
+
+    /**
+     * Search uses index on results
+     *
+     * @param from minimal result (inclusive)
+     *
+     * @param to maximal result (inclusive)
+     *
+     * @return list of equations with results from range
+     * empty list if from > to, if from or to is NaN or DB wasn't found
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public ArrayList<Equation> between(double from, double to) {
+        long trace = TRACER.start();
 
         ArrayList<Equation>equations = new ArrayList<>();
+        if (Double.isNaN(from) || Double.isNaN(to) || from > to) return equations;
 
-        if (condition != null) {
-            if (condition.equals("<") || condition.equals("<=") || condition.equals("=")
-                    || condition.equals(">=") || condition.equals(">")) {
-                String sql = "SELECT * FROM equations WHERE result " + condition + " " + result + ";";
+        synchronized (reader) {
+            try {
+                PreparedStatement statement = reader.statement(SELECT_BETWEEN);
+                statement.setDouble(1, from);
+                statement.setDouble(2, to);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        equations.add(equation(resultSet));
+                    }
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
 
-                LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-                try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-                     Statement statement = connection.createStatement();
-                     ResultSet resultSet = statement.executeQuery(sql)) {
+            TRACER.end(trace, "between", equations.size());
+            return equations;
+        }
+    }
 
+    /**
+     * Search of equations that contain text
+     * Texts from {@value #TRIGRAM} characters are searched by full-text index and sorted by rank (BM25),
+     * shorter texts are searched by scan of table and sorted by length of equations
+     * Search doesn't depend on case of letters
+     *
+     * @param text that equation contains
+     *
+     * @param offset number of best equations that are skipped (equations of previous pages)
+     *
+     * @param limit maximum number of equations
+     *
+     * @return list of equations that contain text, best first
+     * empty list if text == null, text is empty, limit <= 0 or DB wasn't found
+     *
+     * @see #dbUrl
+     * @see #createTextIndexIfNotExists()
+     */
+    @Override
+    public ArrayList<Equation> search(String text, int offset, int limit) {
+        long trace = TRACER.start();
+
+        ArrayList<Equation> equations = new ArrayList<>();
+        if (text == null || text.isEmpty() || limit <= 0) return equations;
+
+        synchronized (reader) {
+            try {
+                PreparedStatement statement;
+                if (textIndex && text.codePointCount(0, text.length()) >= TRIGRAM) {
+                    statement = reader.statement(SELECT_TEXT);
+                    statement.setString(1, '"' + text.replace("\"", "\"\"") + '"');
+                } else {
+                    statement = reader.statement(SELECT_TEXT_SCAN);
+                    statement.setString(1, text);
+                }
+                statement.setInt(2, limit);
+                statement.setInt(3, Math.max(offset, 0));
+                try (ResultSet resultSet = statement.executeQuery()) {
                     while (resultSet.next()) {
-                        Equation equation = new Equation();
-                        equation.setId(resultSet.getInt("id"));
-                        equation.setEquation(resultSet.getString("equation"));
-                        equation.setResult(resultSet.getDouble("result"));
-                        equations.add(equation);
+                        equations.add(equation(resultSet));
                     }
+                }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "textSearch", equations.size(), text);
+            return equations;
+        }
+    }
+
+    /**
+     * Search by index on hashes of canonical forms
+     *
+     * @param equation text of equation in any form
+     *
+     * @return equation from DB with the same canonical form (with the least id if DB has few of them)
+     * null if equation == null, DB hasn't such equation or DB wasn't found
+     *
+     * @see CanonicalForm
+     * @see #dbUrl
+     */
+    @Override
+    public Equation find(String equation) {
+        if (equation == null) return null;
 
-                } catch (SQLException ex) {
-                    LOGGER.error("Exception was thrown:", ex);
+        long trace = TRACER.start();
+        synchronized (reader) {
+            Equation found = null;
+            try {
+                found = findCanonical(reader, CanonicalForm.of(equation));
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+
+            TRACER.end(trace, "find", found == null ? 0 : 1);
+            return found;
+        }
+    }
+
+    /**
+     * @return hashes of canonical forms of all equations in order of ids
+     * empty array if DB wasn't found
+     *
+     * @see CanonicalForm#hash(String)
+     * @see #dbUrl
+     */
+    @Override
+    public long[] canonicalHashes() {
+        long trace = TRACER.start();
+
+        synchronized (reader) {
+            long[] hashes = new long[FETCH_SIZE];
+            int size = 0;
+            try (Statement statement = reader.connection().createStatement()){
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet resultSet = statement.executeQuery(SELECT_CANONICAL_HASHES)){
+                    while (resultSet.next()){
+                        if (size == hashes.length) hashes = Arrays.copyOf(hashes, size + (size >> 1));
+                        hashes[size++] = resultSet.getLong(1);
+                    }
                 }
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
             }
+
+            TRACER.end(trace, "canonicalHashes", size);
+            return Arrays.copyOf(hashes, size);
+        }
+    }
+
+    /**
+     * Adds equation to DB if DB hasn't equation with the same canonical form
+     * Search and insert are made under one lock, so the same equation isn't added twice by this repository
+     *
+     * @param equation to add
+     *
+     * @return equation from DB with the same canonical form
+     * equation from @param with id that was generated by DB if it was added
+     * null if equation == null, it wasn't added or DB wasn't found
+     *
+     * @see CanonicalForm
+     * @see #dbUrl
+     */
+    @Override
+    public Equation addOrGet(Equation equation) {
+        if (equation == null) return null;
+
+        long trace = TRACER.start();
+        synchronized (writer) {
+            try {
+                Equation found = findCanonical(writer, CanonicalForm.of(equation.getEquation()));
+                if (found != null) {
+                    TRACER.end(trace, "addOrGet", 0);
+                    return found;
+                }
+
+                int id = insert(equation);
+                TRACER.end(trace, "addOrGet", id > 0 ? 1 : 0);
+                if (id > 0) {
+                    equation.setId(id);
+                    return equation;
+                } else return null;
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Adds all equations that DB hasn't with the same canonical form in one transaction
+     * Search and insert are made under one lock, equations of collection with the same canonical form are added once
+     *
+     * @param equations to add
+     *
+     * @return equations in order of collection: equation from DB with the same canonical form
+     * or equation from collection with id that was generated by DB if it was added
+     * null for equation that is null or wasn't added
+     * all nulls if transaction wasn't committed or DB wasn't found
+     *
+     * @see CanonicalForm
+     * @see #dbUrl
+     */
+    @Override
+    public Equation[] addOrGetAll(Collection<Equation> equations) {
+        if (equations == null) return new Equation[0];
+
+        long trace = TRACER.start();
+        synchronized (writer) {
+            Equation[] stored = new Equation[equations.size()];
+            int[] ids = new int[stored.length];
+            boolean committed = transaction(() -> {
+                int index = 0;
+                for (Equation equation : equations) {
+                    if (equation != null) {
+                        stored[index] = findCanonical(writer, CanonicalForm.of(equation.getEquation()));
+                        if (stored[index] == null) ids[index] = insert(equation);
+                    }
+                    index++;
+                }
+            });
+
+            int added = 0;
+            if (committed) {
+                int index = 0;
+                for (Equation equation : equations) {
+                    if (equation != null && stored[index] == null && ids[index] > 0) {
+                        equation.setId(ids[index]);
+                        stored[index] = equation;
+                        added++;
+                    }
+                    index++;
+                }
+            } else Arrays.fill(stored, null);
+
+            TRACER.end(trace, "addOrGetAll", added);
+            return stored;
         }
+    }
 
-        LOGGER.debug("Received list: {}", equations);
-        return equations;
+    /**
+     * @return equation with the same canonical form and the least id
+     * null if DB hasn't it
+     */
+    private static Equation findCanonical(SqlSession session, String canonical) throws SQLException {
+        PreparedStatement statement = session.statement(SELECT_BY_CANONICAL);
+        statement.setLong(1, CanonicalForm.hash(canonical));
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                Equation equation = equation(resultSet);
+                if (canonical.equals(CanonicalForm.of(equation.getEquation()))) return equation;
+            }
+        }
+        return null;
     }
 
     /**
      * Adds new equation to DB
+     * Sets id that was generated by DB to equation
      *
      * @param equation to add
      *
@@ -237,31 +1077,169 @@ public class EquationRepository_sql implements EquationRepository {
      */
     @Override
     public boolean add(Equation equation) {
-        LOGGER.debug("Received a request to add equation = {}", equation);
-
         if (equation == null) return false;
 
-        String sql = "INSERT INTO equations (equation, result)"
-                + "VALUES ("
-                + "'" + equation.getEquation() + "'"
-                + ", " + equation.getResult()
-                + ");";
+        long trace = TRACER.start();
+        synchronized (writer) {
+            try {
+                int id = insert(equation);
+                TRACER.end(trace, "add", id > 0 ? 1 : 0);
+                if (id > 0){
+                    equation.setId(id);
+                    return true;
+                }else return false;
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+                return false;
+            }
+        }
+    }
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement()){
-
-            int result = statement.executeUpdate(sql);
-            if (result > 0){
-                LOGGER.debug("Equation was added");
-                return true;
-            }else return false;
+    /**
+     * Adds all equations to DB in one transaction
+     * Sets ids that were generated by DB to equations
+     *
+     * @param equations to add
+     *
+     * @return ids of added equations in order of collection
+     * -1 for equation == null
+     * all -1 if DB wasn't found or exception was thrown (none of equations was added)
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public int[] addAll(Collection<Equation> equations) {
+        if (equations == null) return new int[0];
+
+        long trace = TRACER.start();
+        synchronized (writer) {
+            int[] ids = new int[equations.size()];
+            Arrays.fill(ids, -1);
+            boolean committed = transaction(() -> {
+                int index = 0;
+                for (Equation equation : equations) {
+                    if (equation != null) ids[index] = insert(equation);
+                    index++;
+                }
+            });
+
+            if (committed) {
+                int index = 0;
+                for (Equation equation : equations) {
+                    if (equation != null && ids[index] > 0) equation.setId(ids[index]);
+                    index++;
+                }
+            } else Arrays.fill(ids, -1);
+
+            TRACER.end(trace, "addAll", committed ? equations.size() : 0);
+            return ids;
+        }
+    }
+
+    /**
+     * Inserts equations with their own ids in one transaction
+     * Equation from DB with the same id is replaced
+     *
+     * @param equations to restore
+     *
+     * @return number of restored equations
+     * 0 if DB wasn't found or exception was thrown (none of equations was restored)
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public int restoreAll(Collection<Equation> equations) {
+        if (equations == null) return 0;
+
+        long trace = TRACER.start();
+        synchronized (writer) {
+            int[] count = new int[1];
+            boolean committed = transaction(() -> {
+                PreparedStatement statement = writer.statement(RESTORE);
+                for (Equation equation : equations) {
+                    if (equation == null) continue;
+
+                    statement.setInt(1, equation.getId());
+                    statement.setString(2, equation.getEquation());
+                    statement.setDouble(3, equation.getResult());
+                    statement.setLong(4, hash(equation.getEquation()));
+                    statement.addBatch();
+                    count[0]++;
+                }
+                statement.executeBatch();
+            });
+
+            TRACER.end(trace, "restoreAll", committed ? count[0] : 0);
+            return committed ? count[0] : 0;
+        }
+    }
+
+    /**
+     * Inserts equation without changing of transaction
+     *
+     * @return id that was generated by DB
+     * -1 if equation wasn't inserted
+     */
+    private int insert(Equation equation) throws SQLException {
+        PreparedStatement statement = writer.statement(INSERT);
+        statement.setString(1, equation.getEquation());
+        statement.setDouble(2, equation.getResult());
+        statement.setLong(3, hash(equation.getEquation()));
+        if (statement.executeUpdate() == 0) return -1;
+
+        try (ResultSet resultSet = writer.statement(LAST_ID).executeQuery()) {
+            return resultSet.next() ? resultSet.getInt(1) : -1;
+        }
+    }
+
+    /**
+     * Runs requests in one transaction, rollbacks it if exception was thrown
+     *
+     * @param requests to DB
+     *
+     * @return true if transaction was committed
+     * false if DB wasn't found or exception was thrown
+     */
+    private boolean transaction(Requests requests){
+        Connection connection;
+        try {
+            connection = writer.connection();
+            connection.setAutoCommit(false);
+        } catch (SQLException ex) {
+            LOGGER.error("Exception was thrown:", ex);
+            return false;
+        }
+
+        try {
+            requests.execute();
+            connection.commit();
+            return true;
         } catch (SQLException ex) {
             LOGGER.error("Exception was thrown:", ex);
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                LOGGER.error("Exception was thrown:", e);
+            }
             return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
         }
     }
 
+    /**
+     * Requests to DB that need to run in one transaction
+     *
+     * @see #transaction(Requests)
+     */
+    private interface Requests {
+        void execute() throws SQLException;
+    }
+
     /**
      * Changes equation from DB with id of equation from @param
      *
@@ -274,28 +1252,70 @@ public class EquationRepository_sql implements EquationRepository {
      */
     @Override
     public boolean set(Equation equation) {
-        LOGGER.debug("Received a request to set equation = {}", equation);
-
         if (equation == null) return false;
 
-        String sql = "UPDATE equations SET "
-                + "equation = '" + equation.getEquation() + "'"
-                + ", result = " + equation.getResult()
-                + " WHERE id = " + equation.getId() + ";";
+        long trace = TRACER.start();
+        synchronized (writer) {
+            try {
+                PreparedStatement statement = writer.statement(UPDATE);
+                statement.setString(1, equation.getEquation());
+                statement.setDouble(2, equation.getResult());
+                statement.setLong(3, hash(equation.getEquation()));
+                statement.setInt(4, equation.getId());
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement()){
+                int result = statement.executeUpdate();
 
-            int result = statement.executeUpdate(sql);
+                TRACER.end(trace, "set", result);
+                return result > 0;
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+                return false;
+            }
+        }
+    }
 
-            if (result > 0){
-                LOGGER.debug("Equation was sets");
-                return true;
-            }else return false;
-        } catch (SQLException ex) {
-            LOGGER.error("Exception was thrown:", ex);
-            return false;
+    /**
+     * Changes all equations in DB with ids of equations from collection in one transaction
+     *
+     * @param equations to change
+     *
+     * @return true for every equation that was changed in order of collection
+     * false for equation == null or if equation with this id wasn't found
+     * all false if DB wasn't found or exception was thrown (none of equations was changed)
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public boolean[] setAll(Collection<Equation> equations) {
+        if (equations == null) return new boolean[0];
+
+        long trace = TRACER.start();
+        synchronized (writer) {
+            boolean[] changed = new boolean[equations.size()];
+            boolean committed = transaction(() -> {
+                PreparedStatement statement = writer.statement(UPDATE);
+                for (Equation equation : equations) {
+                    if (equation == null) continue;
+
+                    statement.setString(1, equation.getEquation());
+                    statement.setDouble(2, equation.getResult());
+                    statement.setLong(3, hash(equation.getEquation()));
+                    statement.setInt(4, equation.getId());
+                    statement.addBatch();
+                }
+                int[] results = statement.executeBatch();
+
+                int index = 0;
+                int batchIndex = 0;
+                for (Equation equation : equations) {
+                    if (equation != null) changed[index] = results[batchIndex++] > 0;
+                    index++;
+                }
+            });
+
+            if (!committed) Arrays.fill(changed, false);
+            TRACER.end(trace, "setAll", committed ? equations.size() : 0);
+            return changed;
         }
     }
 
@@ -311,23 +1331,56 @@ public class EquationRepository_sql implements EquationRepository {
      */
     @Override
     public boolean remove(int id) {
-        LOGGER.debug("Received a request to remove equation with id = {}", id);
+        long trace = TRACER.start();
+        synchronized (writer) {
+            try {
+                PreparedStatement statement = writer.statement(DELETE);
+                statement.setInt(1, id);
 
-        String sql = "DELETE FROM equations WHERE id = " + id + ";";
+                int result = statement.executeUpdate();
 
-        LOGGER.debug("Trying to connect to DB with URL = {}", dbUrl);
-        try (Connection connection = getConnection(dbUrl, dbUser,dbPassword);
-             Statement statement = connection.createStatement()){
+                TRACER.end(trace, "remove", result);
+                return result > 0;
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+                return false;
+            }
+        }
+    }
 
-            int result = statement.executeUpdate(sql);
+    /**
+     * Removes all equations with this ids from DB in one transaction
+     *
+     * @param ids of equations who need to removed
+     *
+     * @return true for every equation that was removed in order of ids
+     * false if equation with this id wasn't found
+     * all false if DB wasn't found or exception was thrown (none of equations was removed)
+     *
+     * @see #dbUrl
+     */
+    @Override
+    public boolean[] removeAll(int[] ids) {
+        if (ids == null) return new boolean[0];
 
-            if (result > 0){
-                LOGGER.debug("Equation was removed");
-                return true;
-            }else return false;
-        } catch (SQLException ex) {
-            LOGGER.error("Exception was thrown:", ex);
-            return false;
+        long trace = TRACER.start();
+        synchronized (writer) {
+            boolean[] removed = new boolean[ids.length];
+            boolean committed = transaction(() -> {
+                PreparedStatement statement = writer.statement(DELETE);
+                for (int id : ids) {
+                    statement.setInt(1, id);
+                    statement.addBatch();
+                }
+                int[] results = statement.executeBatch();
+                for (int index = 0; index < results.length; index++) {
+                    removed[index] = results[index] > 0;
+                }
+            });
+
+            if (!committed) Arrays.fill(removed, false);
+            TRACER.end(trace, "removeAll", committed ? ids.length : 0);
+            return removed;
         }
     }
 }
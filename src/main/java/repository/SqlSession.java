@@ -0,0 +1,105 @@
+package repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+/**
+ * One long-lived connection with DB and prepared statements of it
+ * Connection isn't thread-safe, so session MUST! be used only under own lock: synchronized (session) {...}
+ *
+ * @see EquationRepository_sql
+ */
+final class SqlSession implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlSession.class);
+
+    private final String name;
+    private final Opener opener;
+
+    /**
+     * Connection with DB that opened by first request
+     *
+     * @see #connection()
+     */
+    private Connection connection;
+
+    /**
+     * Prepared statements of {@link #connection} by their SQL
+     *
+     * @see #statement(String)
+     */
+    private final HashMap<String, PreparedStatement> statements = new HashMap<>();
+
+    /**
+     * @param name of session for logs
+     * @param opener opens new connection with DB
+     */
+    SqlSession(String name, Opener opener){
+        this.name = name;
+        this.opener = opener;
+    }
+
+    /**
+     * @return connection with DB, opens it if it wasn't opened or was closed
+     *
+     * @throws SQLException if DB wasn't found
+     */
+    Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            LOGGER.debug("Session \"{}\" opens connection with DB", name);
+            statements.clear();
+            connection = opener.open();
+        }
+        return connection;
+    }
+
+    /**
+     * @param sql of statement
+     *
+     * @return prepared statement from cache or new one, if it wasn't prepared yet
+     *
+     * @throws SQLException if DB wasn't found or sql is incorrect
+     */
+    PreparedStatement statement(String sql) throws SQLException {
+        Connection connection = connection();
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Closes all prepared statements and connection with DB
+     */
+    @Override
+    public void close() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ex) {
+                LOGGER.warn("Exception was thrown:", ex);
+            }
+        }
+        statements.clear();
+
+        if (connection != null) {
+            try {
+                connection.close();
+                LOGGER.info("Connection of session \"{}\" with DB was closed", name);
+            } catch (SQLException ex) {
+                LOGGER.error("Exception was thrown:", ex);
+            }
+            connection = null;
+        }
+    }
+
+    interface Opener {
+        Connection open() throws SQLException;
+    }
+}
@@ -0,0 +1,132 @@
+package repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * Settings of SQLite storage that applied to every connection by PRAGMA statements
+ * Settings are read from jdbc.properties with prefix "sqlite.", for example:
+ * sqlite.journal_mode=WAL
+ * sqlite.synchronous=NORMAL
+ * sqlite.mmap_size=268435456
+ * sqlite.cache_size=-65536
+ * sqlite.temp_store=MEMORY
+ * Setting that isn't in properties keeps SQLite default
+ *
+ * @see EquationRepository_sql
+ */
+public class StorageProfile {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StorageProfile.class);
+
+    public static final String PREFIX = "sqlite.";
+
+    public static final String JOURNAL_MODE = "journal_mode";
+    public static final String SYNCHRONOUS = "synchronous";
+    public static final String MMAP_SIZE = "mmap_size";
+    public static final String CACHE_SIZE = "cache_size";
+    public static final String TEMP_STORE = "temp_store";
+
+    private static final String[] PRAGMAS = {JOURNAL_MODE, SYNCHRONOUS, MMAP_SIZE, CACHE_SIZE, TEMP_STORE};
+
+    /**
+     * Values of PRAGMA are inserted into SQL, so they can contain only this characters
+     */
+    private static final Pattern VALUE = Pattern.compile("-?[A-Za-z0-9_]+");
+
+    /**
+     * Profile without settings, all settings are SQLite defaults
+     */
+    public static final StorageProfile DEFAULT = new StorageProfile(new LinkedHashMap<>());
+
+    private final LinkedHashMap<String, String> pragmas;
+
+    private StorageProfile(LinkedHashMap<String, String> pragmas){
+        this.pragmas = pragmas;
+    }
+
+    /**
+     * @param properties with settings with prefix {@link #PREFIX}
+     *
+     * @return profile with settings from properties
+     * incorrect values are ignored
+     */
+    public static StorageProfile fromProperties(Properties properties){
+        LinkedHashMap<String, String> pragmas = new LinkedHashMap<>();
+        if (properties != null) {
+            for (String pragma : PRAGMAS) {
+                String value = properties.getProperty(PREFIX + pragma);
+                if (value == null || value.isBlank()) continue;
+
+                value = value.trim();
+                if (VALUE.matcher(value).matches()) {
+                    pragmas.put(pragma, value);
+                } else {
+                    LOGGER.warn("Incorrect value of {}{} = {} was ignored", PREFIX, pragma, value);
+                }
+            }
+        }
+        return new StorageProfile(pragmas);
+    }
+
+    /**
+     * @param pragma name of setting (without prefix)
+     *
+     * @return value of setting
+     * null if setting isn't in profile
+     */
+    public String get(String pragma){
+        return pragmas.get(pragma);
+    }
+
+    /**
+     * @return true if profile sets journal_mode = WAL, so readers don't block writers
+     */
+    public boolean isWal(){
+        return "WAL".equalsIgnoreCase(pragmas.get(JOURNAL_MODE));
+    }
+
+    /**
+     * Applies all settings of profile to connection
+     *
+     * @param connection with DB
+     *
+     * @throws SQLException if DB wasn't found
+     */
+    public void apply(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> pragma : pragmas.entrySet()) {
+                statement.execute("PRAGMA " + pragma.getKey() + " = " + pragma.getValue() + ";");
+            }
+        }
+    }
+
+    /**
+     * @param connection with DB
+     *
+     * @return effective values of all settings that can be set by profile, like:
+     * journal_mode = wal, synchronous = 1, mmap_size = 268435456, cache_size = -65536, temp_store = 2
+     *
+     * @throws SQLException if DB wasn't found
+     */
+    public static String report(Connection connection) throws SQLException {
+        StringBuilder report = new StringBuilder();
+        try (Statement statement = connection.createStatement()) {
+            for (String pragma : PRAGMAS) {
+                try (ResultSet resultSet = statement.executeQuery("PRAGMA " + pragma + ";")) {
+                    if (report.length() > 0) report.append(", ");
+                    report.append(pragma).append(" = ").append(resultSet.next() ? resultSet.getString(1) : null);
+                }
+            }
+        }
+        return report.toString();
+    }
+}
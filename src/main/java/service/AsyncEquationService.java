@@ -0,0 +1,68 @@
+package service;
+
+import model.Equation;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous version of {@link EquationService}
+ * Every request runs in background and returns future that completes with result of {@link EquationService}
+ * Futures complete in background thread, UI has to move results to event dispatch thread by itself, like:
+ * future.thenAcceptAsync(result -> {...}, SwingUtilities::invokeLater)
+ *
+ * @see AsyncEquationService_impl
+ * @see EquationService
+ */
+public interface AsyncEquationService {
+
+    /**
+     * @see EquationService#ids()
+     */
+    CompletableFuture<int[]> ids();
+
+    /**
+     * @see EquationService#page(int, int)
+     */
+    CompletableFuture<ArrayList<Equation>> page(int afterId, int limit);
+
+    /**
+     * @see EquationService#get(int)
+     */
+    CompletableFuture<Equation> get(int id);
+
+    /**
+     * @see EquationService#get(String, double)
+     */
+    CompletableFuture<ArrayList<Equation>> get(String condition, double result);
+
+    /**
+     * @see EquationService#between(double, double)
+     */
+    CompletableFuture<ArrayList<Equation>> between(double from, double to);
+
+    /**
+     * @see EquationService#search(String, int, int)
+     */
+    CompletableFuture<ArrayList<Equation>> search(String text, int offset, int limit);
+
+    /**
+     * @see EquationService#add(Equation)
+     */
+    CompletableFuture<Boolean> add(Equation equation);
+
+    /**
+     * @see EquationService#addOrGet(Equation)
+     */
+    CompletableFuture<Equation> addOrGet(Equation equation);
+
+    /**
+     * @see EquationService#set(Equation)
+     */
+    CompletableFuture<Boolean> set(Equation equation);
+
+    /**
+     * @see EquationService#remove(int)
+     */
+    CompletableFuture<Boolean> remove(int id);
+}
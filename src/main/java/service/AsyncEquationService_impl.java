@@ -0,0 +1,83 @@
+package service;
+
+import model.Equation;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Implementation of {@link AsyncEquationService} that runs requests to {@link EquationService} in {@link #executor}
+ *
+ * @see BackgroundExecutor
+ */
+public class AsyncEquationService_impl implements AsyncEquationService {
+    private final EquationService service;
+    private final Executor executor;
+
+    /**
+     * @param service that runs requests
+     */
+    public AsyncEquationService_impl(EquationService service){
+        this(service, BackgroundExecutor.INSTANCE);
+    }
+
+    /**
+     * @param service that runs requests
+     * @param executor to run requests in background
+     */
+    public AsyncEquationService_impl(EquationService service, Executor executor){
+        this.service = service;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<int[]> ids() {
+        return CompletableFuture.supplyAsync(service::ids, executor);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> page(int afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> service.page(afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Equation> get(int id) {
+        return CompletableFuture.supplyAsync(() -> service.get(id), executor);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> get(String condition, double result) {
+        return CompletableFuture.supplyAsync(() -> service.get(condition, result), executor);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> between(double from, double to) {
+        return CompletableFuture.supplyAsync(() -> service.between(from, to), executor);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> search(String text, int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> service.search(text, offset, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> add(Equation equation) {
+        return CompletableFuture.supplyAsync(() -> service.add(equation), executor);
+    }
+
+    @Override
+    public CompletableFuture<Equation> addOrGet(Equation equation) {
+        return CompletableFuture.supplyAsync(() -> service.addOrGet(equation), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(Equation equation) {
+        return CompletableFuture.supplyAsync(() -> service.set(equation), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(int id) {
+        return CompletableFuture.supplyAsync(() -> service.remove(id), executor);
+    }
+}
@@ -0,0 +1,370 @@
+package service;
+
+import model.Equation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link AsyncEquationService} that collects changes in memory
+ * and saves them by groups: every {@link #delay} ms or when {@link #maxOperations} changes were collected
+ * Every group is saved by {@link EquationService#addAll(java.util.Collection)},
+ * {@link EquationService#setAll(java.util.Collection)} and {@link EquationService#removeAll(int[])},
+ * so thousands of changes need only few transactions instead of one transaction per change
+ * Changes of one equation are merged: only last set is saved, set before remove isn't saved
+ * Future of change completes after group with it was committed
+ * Reads save all collected changes before, so they see all changes that were made before them
+ * MUST! be closed by {@link #close()} after using, otherwise last changes can be lost
+ * Changes and reads after closing complete exceptionally with {@link IllegalStateException}
+ *
+ * @see #flush()
+ */
+public class AsyncEquationService_writeBehind implements AsyncEquationService, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEquationService_writeBehind.class);
+
+    public static final long DEFAULT_DELAY = 50;
+    public static final int DEFAULT_MAX_OPERATIONS = 1000;
+
+    private static final String CLOSED = "Write-behind service is closed";
+
+    private final EquationService service;
+
+    /**
+     * Maximum time in ms that change waits in memory
+     */
+    private final long delay;
+
+    /**
+     * Number of collected changes after which they are saved immediately
+     */
+    private final int maxOperations;
+
+    /**
+     * Single thread that saves groups of changes one by one
+     */
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Executor for reads
+     */
+    private final Executor readers;
+
+    /**
+     * Collected changes, MUST! be used only under lock of this
+     */
+    private Group group = new Group();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean flushQueued = false;
+    private boolean closed = false;
+
+    /**
+     * @param service that saves changes
+     */
+    public AsyncEquationService_writeBehind(EquationService service){
+        this(service, DEFAULT_DELAY, DEFAULT_MAX_OPERATIONS, BackgroundExecutor.INSTANCE);
+    }
+
+    /**
+     * @param service that saves changes
+     * @param delay maximum time in ms that change waits in memory
+     * @param maxOperations number of collected changes after which they are saved immediately
+     * @param readers executor for reads
+     */
+    public AsyncEquationService_writeBehind(EquationService service, long delay, int maxOperations, Executor readers){
+        this.service = service;
+        this.delay = Math.max(delay, 0);
+        this.maxOperations = Math.max(maxOperations, 1);
+        this.readers = readers;
+    }
+
+    @Override
+    public CompletableFuture<int[]> ids() {
+        return flush().thenApplyAsync(v -> service.ids(), readers);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> page(int afterId, int limit) {
+        return flush().thenApplyAsync(v -> service.page(afterId, limit), readers);
+    }
+
+    @Override
+    public CompletableFuture<Equation> get(int id) {
+        return flush().thenApplyAsync(v -> service.get(id), readers);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> get(String condition, double result) {
+        return flush().thenApplyAsync(v -> service.get(condition, result), readers);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> between(double from, double to) {
+        return flush().thenApplyAsync(v -> service.between(from, to), readers);
+    }
+
+    @Override
+    public CompletableFuture<ArrayList<Equation>> search(String text, int offset, int limit) {
+        return flush().thenApplyAsync(v -> service.search(text, offset, limit), readers);
+    }
+
+    /**
+     * Id is set to equation when group with it is saved
+     *
+     * @return future that completes with true after equation was saved
+     * false if equation == null or it wasn't added
+     */
+    @Override
+    public CompletableFuture<Boolean> add(Equation equation) {
+        if (equation == null) return CompletableFuture.completedFuture(false);
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException(CLOSED));
+
+            group.adds.add(new Pending(equation, future));
+            collected();
+        }
+        return future;
+    }
+
+    /**
+     * Is collected as other changes, but is saved after additions, changes and removals of its group,
+     * so it sees equations that are waiting for saving
+     * All collected equations are saved by one {@link EquationService#addOrGetAll(java.util.Collection)}
+     *
+     * @return future that completes with equation with the same canonical form that was added before
+     * or with equation from @param if it was added
+     * null if equation == null or it wasn't added
+     */
+    @Override
+    public CompletableFuture<Equation> addOrGet(Equation equation) {
+        if (equation == null) return CompletableFuture.completedFuture(null);
+
+        CompletableFuture<Equation> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException(CLOSED));
+
+            group.addOrGets.add(new Lookup(equation, future));
+            collected();
+        }
+        return future;
+    }
+
+    /**
+     * If equation with the same id is already waiting, only last one is saved
+     * and futures of both complete with result of last one
+     *
+     * @return future that completes with true after equation was saved
+     * false if equation == null, it wasn't changed or it is waiting for remove
+     */
+    @Override
+    public CompletableFuture<Boolean> set(Equation equation) {
+        if (equation == null) return CompletableFuture.completedFuture(false);
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException(CLOSED));
+
+            if (group.removes.containsKey(equation.getId())) {
+                future.complete(false);
+                return future;
+            }
+
+            Pending previous = group.sets.remove(equation.getId());
+            Pending pending = new Pending(equation, future);
+            if (previous != null) pending.futures.addAll(previous.futures);
+            group.sets.put(equation.getId(), pending);
+            collected();
+        }
+        return future;
+    }
+
+    /**
+     * Waiting set of equation with the same id isn't saved, its futures complete with result of remove
+     *
+     * @return future that completes with true after equation was removed
+     * false if it wasn't removed
+     */
+    @Override
+    public CompletableFuture<Boolean> remove(int id) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) return CompletableFuture.failedFuture(new IllegalStateException(CLOSED));
+
+            Pending pending = group.removes.get(id);
+            if (pending == null) {
+                pending = new Pending(null, future);
+                group.removes.put(id, pending);
+            } else pending.futures.add(future);
+
+            Pending set = group.sets.remove(id);
+            if (set != null) pending.futures.addAll(set.futures);
+            collected();
+        }
+        return future;
+    }
+
+    /**
+     * Saves all collected changes
+     *
+     * @return future that completes after all changes that were made before were saved
+     * future that completes exceptionally if this was closed
+     */
+    public CompletableFuture<Void> flush(){
+        try {
+            return CompletableFuture.runAsync(this::write, writer);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(new IllegalStateException(CLOSED, ex));
+        }
+    }
+
+    /**
+     * Saves all collected changes and stops saving thread
+     * Changes after closing aren't collected, service isn't closed
+     */
+    @Override
+    public void close() {
+        LOGGER.debug("Received a request to close write-behind service");
+
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        flush().join();
+        writer.shutdown();
+    }
+
+    /**
+     * Plans saving of collected changes, MUST! be called under lock of this after every change
+     */
+    private void collected(){
+        if (flushQueued) return;
+
+        if (group.size() >= maxOperations) {
+            flushQueued = true;
+            writer.execute(this::write);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = writer.schedule(this::write, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Saves collected changes, runs only in {@link #writer}
+     */
+    private void write(){
+        Group group;
+        synchronized (this) {
+            flushQueued = false;
+            if (scheduledFlush != null) scheduledFlush.cancel(false);
+            scheduledFlush = null;
+            if (this.group.size() == 0) return;
+
+            group = this.group;
+            this.group = new Group();
+        }
+
+        LOGGER.debug("Saving of {} additions, {} changes, {} removals and {} additions of new equations",
+                group.adds.size(), group.sets.size(), group.removes.size(), group.addOrGets.size());
+        try {
+            if (!group.adds.isEmpty()) {
+                ArrayList<Equation> equations = new ArrayList<>(group.adds.size());
+                for (Pending pending : group.adds) equations.add(pending.equation);
+                int[] ids = service.addAll(equations);
+                for (int index = 0; index < ids.length; index++) {
+                    group.adds.get(index).complete(ids[index] > 0);
+                }
+            }
+
+            if (!group.sets.isEmpty()) {
+                ArrayList<Equation> equations = new ArrayList<>(group.sets.size());
+                for (Pending pending : group.sets.values()) equations.add(pending.equation);
+                boolean[] changed = service.setAll(equations);
+                int index = 0;
+                for (Pending pending : group.sets.values()) pending.complete(changed[index++]);
+            }
+
+            if (!group.removes.isEmpty()) {
+                int[] ids = new int[group.removes.size()];
+                int index = 0;
+                for (int id : group.removes.keySet()) ids[index++] = id;
+                boolean[] removed = service.removeAll(ids);
+                index = 0;
+                for (Pending pending : group.removes.values()) pending.complete(removed[index++]);
+            }
+
+            if (!group.addOrGets.isEmpty()) {
+                ArrayList<Equation> equations = new ArrayList<>(group.addOrGets.size());
+                for (Lookup lookup : group.addOrGets) equations.add(lookup.equation);
+                Equation[] stored = service.addOrGetAll(equations);
+                for (int index = 0; index < stored.length; index++) {
+                    group.addOrGets.get(index).future.complete(stored[index]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.error("Exception was thrown:", ex);
+            group.fail(ex);
+        }
+    }
+
+    /**
+     * Changes that are saved together
+     */
+    private static final class Group {
+        private final List<Pending> adds = new ArrayList<>();
+        private final Map<Integer, Pending> sets = new LinkedHashMap<>();
+        private final Map<Integer, Pending> removes = new LinkedHashMap<>();
+        private final List<Lookup> addOrGets = new ArrayList<>();
+
+        int size(){
+            return adds.size() + sets.size() + removes.size() + addOrGets.size();
+        }
+
+        void fail(Throwable ex){
+            for (Pending pending : adds) pending.fail(ex);
+            for (Pending pending : sets.values()) pending.fail(ex);
+            for (Pending pending : removes.values()) pending.fail(ex);
+            for (Lookup lookup : addOrGets) lookup.future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Equation that is added only if DB hasn't equation with the same canonical form
+     */
+    private record Lookup(Equation equation, CompletableFuture<Equation> future){}
+
+    /**
+     * Change and futures of all requests that wait it
+     */
+    private static final class Pending {
+        private final Equation equation;
+        private final List<CompletableFuture<Boolean>> futures = new ArrayList<>(1);
+
+        Pending(Equation equation, CompletableFuture<Boolean> future){
+            this.equation = equation;
+            this.futures.add(future);
+        }
+
+        void complete(boolean result){
+            for (CompletableFuture<Boolean> future : futures) future.complete(result);
+        }
+
+        void fail(Throwable ex){
+            for (CompletableFuture<Boolean> future : futures) future.completeExceptionally(ex);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor for tasks that mustn't run in event dispatch thread (requests to DB, parsing of long equations)
+ * Tasks run in virtual threads if JVM supports them (Java 21+),
+ * otherwise in pool of daemon threads with one thread per processor
+ *
+ * @see AsyncEquationService_impl
+ */
+public final class BackgroundExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundExecutor.class);
+
+    public static final ExecutorService INSTANCE = create();
+
+    private BackgroundExecutor(){}
+
+    private static ExecutorService create(){
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) method.invoke(null);
+            LOGGER.info("Background tasks run in virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            LOGGER.info("Virtual threads aren't supported, background tasks run in {} threads", threads);
+
+            AtomicInteger number = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "background-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
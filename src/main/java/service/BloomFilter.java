@@ -0,0 +1,89 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of 64-bit hashes (for example hashes of canonical forms)
+ * {@link #mightContain(long)} false means that hash was never added, true means that it was added or it is false positive
+ * Bits of filter are derived from one hash by double hashing, so hash MUST! be well mixed
+ * Is thread safe, added hashes are seen by other threads at once
+ *
+ * @see model.CanonicalForm#hash(String)
+ * @see MathParserService_memo
+ */
+final class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+
+    /**
+     * Number of bits, power of two
+     */
+    private final int size;
+    private final int functions;
+    private final int capacity;
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * @param capacity expected number of hashes, false positive rate grows when filter gets more hashes
+     * @param falsePositiveRate expected rate of false positives for capacity hashes (from 0 to 1 exclusive)
+     */
+    BloomFilter(int capacity, double falsePositiveRate){
+        this.capacity = Math.max(capacity, 1);
+        double bits = -this.capacity * Math.log(falsePositiveRate) / (LN2 * LN2);
+        int size = Integer.highestOneBit((int) Math.min(Math.max(bits, 64), 1 << 30));
+        if (size < bits) size = Math.min(size << 1, 1 << 30);
+        this.size = size;
+        this.functions = Math.max(1, (int) Math.round((double) size / this.capacity * LN2));
+        this.bits = new AtomicLongArray(size >>> 6);
+    }
+
+    /**
+     * @param hash to add
+     */
+    void add(long hash){
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int function = 0; function < functions; function++) {
+            int bit = (h1 + function * h2) & (size - 1);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value = bits.get(word);
+            while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                value = bits.get(word);
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * @param hash to check
+     *
+     * @return false if hash was never added
+     * true if hash was added or if it is false positive
+     */
+    boolean mightContain(long hash){
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int function = 0; function < functions; function++) {
+            int bit = (h1 + function * h2) & (size - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if filter got more hashes than its capacity, so false positive rate is higher than expected
+     */
+    boolean isFull(){
+        return count.get() > capacity;
+    }
+
+    /**
+     * @return number of added hashes (hashes that were added twice are counted twice)
+     */
+    int count(){
+        return count.get();
+    }
+}
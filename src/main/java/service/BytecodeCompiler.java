@@ -0,0 +1,297 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+
+/**
+ * Compiles {@link Expression} to hidden class that implements {@link Evaluator}
+ * Method {@link Evaluator#evaluate(double[])} of generated class has straight-line bytecode
+ * (dadd, dsub, dmul, ddiv, dneg) without any loops and stack of interpreter, so JIT can inline whole equation
+ *
+ * @see MathParserService_bytecode
+ */
+final class BytecodeCompiler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BytecodeCompiler.class);
+
+    /**
+     * JIT doesn't compile methods that are longer than 8000 bytes (-XX:HugeMethodLimit),
+     * so there is no sense to generate longer methods
+     */
+    static final int MAX_CODE_LENGTH = 8000;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int JAVA_17 = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int DALOAD = 0x31;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DDIV = 0x6f;
+    private static final int DNEG = 0x77;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private static final String CLASS_NAME = "service/GeneratedExpression";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String EVALUATOR = Evaluator.class.getName().replace('.', '/');
+
+    private BytecodeCompiler(){}
+
+    /**
+     * Generates and loads hidden class for expression
+     *
+     * @param expression to compile
+     *
+     * @return instance of generated class
+     * null if expression is too long for bytecode or class can't be defined
+     */
+    static Evaluator compile(Expression expression){
+        try {
+            byte[] bytes = classBytes(expression);
+            if (bytes == null) {
+                LOGGER.debug("Equation is too long to compile it to bytecode: {}", expression.getEquation());
+                return null;
+            }
+
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Evaluator) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("Exception was thrown:", e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds class file with constructor and method {@link Evaluator#evaluate(double[])}
+     *
+     * @return bytes of class file
+     * null if code of method is longer than {@link #MAX_CODE_LENGTH}
+     */
+    private static byte[] classBytes(Expression expression) throws IOException {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classInfo(CLASS_NAME);
+        int superClass = pool.classInfo(OBJECT);
+        int evaluator = pool.classInfo(EVALUATOR);
+        int objectConstructor = pool.methodRef(superClass, "<init>", "()V");
+        int codeName = pool.utf8("Code");
+        int constructorName = pool.utf8("<init>");
+        int constructorType = pool.utf8("()V");
+        int evaluateName = pool.utf8("evaluate");
+        int evaluateType = pool.utf8("([D)D");
+        byte[] evaluateCode = code(expression, pool);
+        if (evaluateCode == null) return null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(0);
+        out.writeShort(JAVA_17);
+        pool.write(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(evaluator);
+        out.writeShort(0);
+
+        out.writeShort(2);
+        byte[] constructorCode = {
+                (byte) ALOAD_0,
+                (byte) INVOKESPECIAL, (byte) (objectConstructor >> 8), (byte) objectConstructor,
+                (byte) RETURN
+        };
+        method(out, constructorName, constructorType, codeName, constructorCode, 1, 1);
+        // every double takes 2 slots of stack, array and index of variable take 2 slots more
+        method(out, evaluateName, evaluateType, codeName, evaluateCode, expression.stackSize() * 2 + 2, 2);
+
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    private static void method(DataOutputStream out, int name, int type, int codeName,
+                               byte[] code, int maxStack, int maxLocals) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(type);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    /**
+     * @return bytecode of method {@link Evaluator#evaluate(double[])}
+     * null if code is longer than {@link #MAX_CODE_LENGTH}
+     */
+    private static byte[] code(Expression expression, ConstantPool pool){
+        byte[] operations = expression.operations();
+        double[] numbers = expression.numbers();
+        int[] variableIndexes = expression.variableIndexes();
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream(operations.length * 3 + 1);
+        int number = 0;
+        int variable = 0;
+        for (byte operation : operations) {
+            switch (operation) {
+                case Expression.NUMBER -> pushNumber(code, pool, numbers[number++]);
+                case Expression.VARIABLE -> {
+                    code.write(ALOAD_1);
+                    pushIndex(code, pool, variableIndexes[variable++]);
+                    code.write(DALOAD);
+                }
+                case Expression.ADD -> code.write(DADD);
+                case Expression.SUBTRACT -> code.write(DSUB);
+                case Expression.MULTIPLY -> code.write(DMUL);
+                case Expression.DIVIDE -> code.write(DDIV);
+                case Expression.NEGATE -> code.write(DNEG);
+                default -> throw new IllegalStateException("Unknown operation: " + operation);
+            }
+            if (code.size() > MAX_CODE_LENGTH || pool.isFull()) return null;
+        }
+        code.write(DRETURN);
+        return code.toByteArray();
+    }
+
+    private static void pushNumber(ByteArrayOutputStream code, ConstantPool pool, double number){
+        long bits = Double.doubleToRawLongBits(number);
+        if (bits == Double.doubleToRawLongBits(0D)) {
+            code.write(DCONST_0);
+        } else if (bits == Double.doubleToRawLongBits(1D)) {
+            code.write(DCONST_1);
+        } else {
+            int index = pool.doubleInfo(number);
+            code.write(LDC2_W);
+            code.write(index >> 8);
+            code.write(index);
+        }
+    }
+
+    private static void pushIndex(ByteArrayOutputStream code, ConstantPool pool, int index){
+        if (index <= 5) {
+            code.write(ICONST_0 + index);
+        } else if (index <= Byte.MAX_VALUE) {
+            code.write(BIPUSH);
+            code.write(index);
+        } else if (index <= Short.MAX_VALUE) {
+            code.write(SIPUSH);
+            code.write(index >> 8);
+            code.write(index);
+        } else {
+            int constant = pool.integerInfo(index);
+            code.write(LDC_W);
+            code.write(constant >> 8);
+            code.write(constant);
+        }
+    }
+
+    /**
+     * Constant pool of generated class
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int METHOD_REF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private static final int MAX_SIZE = 0xFFFF;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final HashMap<Object, Integer> indexes = new HashMap<>();
+
+        /**
+         * Index of next constant, indexes of constant pool start from 1
+         */
+        private int size = 1;
+
+        boolean isFull(){
+            return size >= MAX_SIZE - 2;
+        }
+
+        int utf8(String value){
+            return constant("U" + value, 1, UTF8, out -> out.writeUTF(value));
+        }
+
+        int classInfo(String name){
+            int nameIndex = utf8(name);
+            return constant("C" + name, 1, CLASS, out -> out.writeShort(nameIndex));
+        }
+
+        int methodRef(int owner, String name, String type){
+            int nameIndex = utf8(name);
+            int typeIndex = utf8(type);
+            int nameAndType = constant("T" + name + type, 1, NAME_AND_TYPE, out -> {
+                out.writeShort(nameIndex);
+                out.writeShort(typeIndex);
+            });
+            return constant("M" + owner + name + type, 1, METHOD_REF, out -> {
+                out.writeShort(owner);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int integerInfo(int value){
+            return constant(value, 1, INTEGER, out -> out.writeInt(value));
+        }
+
+        /**
+         * Double takes two indexes of constant pool
+         */
+        int doubleInfo(double value){
+            long bits = Double.doubleToRawLongBits(value);
+            return constant(bits, 2, DOUBLE, out -> out.writeLong(bits));
+        }
+
+        private int constant(Object key, int slots, int tag, Content content){
+            Integer index = indexes.get(key);
+            if (index != null) return index;
+
+            try {
+                out.writeByte(tag);
+                content.write(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            index = size;
+            size += slots;
+            indexes.put(key, index);
+            return index;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeShort(size);
+            bytes.writeTo(out);
+        }
+
+        private interface Content {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+}
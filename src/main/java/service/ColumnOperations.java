@@ -0,0 +1,69 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Arithmetic operations over whole columns of values
+ * Used by {@link Expression#evaluate(double[][])} to evaluate equation operation by operation over arrays
+ *
+ * @see ColumnOperations_scalar
+ * @see ColumnOperations_vector
+ */
+interface ColumnOperations {
+
+    /**
+     * Operations that used by this JVM
+     * {@link ColumnOperations_vector} if module jdk.incubator.vector was added (--add-modules jdk.incubator.vector)
+     * {@link ColumnOperations_scalar} if not
+     */
+    ColumnOperations INSTANCE = Factory.create();
+
+    /**
+     * result[i] = left[i] (operation) right[i]
+     *
+     * @param operation one of {@link Expression#ADD}, {@link Expression#SUBTRACT},
+     * {@link Expression#MULTIPLY}, {@link Expression#DIVIDE}
+     */
+    void apply(byte operation, double[] left, double[] right, double[] result, int length);
+
+    /**
+     * result[i] = left[i] (operation) right
+     */
+    void apply(byte operation, double[] left, double right, double[] result, int length);
+
+    /**
+     * result[i] = left (operation) right[i]
+     */
+    void apply(byte operation, double left, double[] right, double[] result, int length);
+
+    /**
+     * result[i] = -values[i]
+     */
+    void negate(double[] values, double[] result, int length);
+
+    final class Factory {
+        private static final Logger LOGGER = LoggerFactory.getLogger(ColumnOperations.class);
+
+        private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+        private Factory(){}
+
+        private static ColumnOperations create(){
+            if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+                try {
+                    ColumnOperations operations = (ColumnOperations) Class.forName("service.ColumnOperations_vector")
+                            .getDeclaredConstructor()
+                            .newInstance();
+                    LOGGER.info("Column operations use Vector API");
+                    return operations;
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    LOGGER.warn("Vector API is unavailable, column operations will be scalar", e);
+                }
+            } else {
+                LOGGER.debug("Module {} wasn't added, column operations will be scalar", VECTOR_MODULE);
+            }
+            return new ColumnOperations_scalar();
+        }
+    }
+}
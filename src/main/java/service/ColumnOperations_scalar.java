@@ -0,0 +1,70 @@
+package service;
+
+/**
+ * Implementation of {@link ColumnOperations} by plain loops
+ * Loops are simple enough for JIT to unroll and auto-vectorize them
+ */
+final class ColumnOperations_scalar implements ColumnOperations {
+
+    @Override
+    public void apply(byte operation, double[] left, double[] right, double[] result, int length) {
+        switch (operation) {
+            case Expression.ADD -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] + right[i];
+            }
+            case Expression.SUBTRACT -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] - right[i];
+            }
+            case Expression.MULTIPLY -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] * right[i];
+            }
+            case Expression.DIVIDE -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] / right[i];
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    @Override
+    public void apply(byte operation, double[] left, double right, double[] result, int length) {
+        switch (operation) {
+            case Expression.ADD -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] + right;
+            }
+            case Expression.SUBTRACT -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] - right;
+            }
+            case Expression.MULTIPLY -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] * right;
+            }
+            case Expression.DIVIDE -> {
+                for (int i = 0; i < length; i++) result[i] = left[i] / right;
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    @Override
+    public void apply(byte operation, double left, double[] right, double[] result, int length) {
+        switch (operation) {
+            case Expression.ADD -> {
+                for (int i = 0; i < length; i++) result[i] = left + right[i];
+            }
+            case Expression.SUBTRACT -> {
+                for (int i = 0; i < length; i++) result[i] = left - right[i];
+            }
+            case Expression.MULTIPLY -> {
+                for (int i = 0; i < length; i++) result[i] = left * right[i];
+            }
+            case Expression.DIVIDE -> {
+                for (int i = 0; i < length; i++) result[i] = left / right[i];
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    @Override
+    public void negate(double[] values, double[] result, int length) {
+        for (int i = 0; i < length; i++) result[i] = -values[i];
+    }
+}
@@ -0,0 +1,82 @@
+package service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of {@link ColumnOperations} by Vector API
+ * Needs module jdk.incubator.vector, so it's created only by {@link ColumnOperations.Factory} after check of module
+ * Tails of arrays that are shorter than vector are calculated element by element
+ */
+final class ColumnOperations_vector implements ColumnOperations {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void apply(byte operation, double[] left, double[] right, double[] result, int length) {
+        VectorOperators.Binary operator = operator(operation);
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, left, i)
+                    .lanewise(operator, DoubleVector.fromArray(SPECIES, right, i))
+                    .intoArray(result, i);
+        }
+        tail(operation, left, right, result, bound, length);
+    }
+
+    @Override
+    public void apply(byte operation, double[] left, double right, double[] result, int length) {
+        VectorOperators.Binary operator = operator(operation);
+        DoubleVector rightVector = DoubleVector.broadcast(SPECIES, right);
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, left, i)
+                    .lanewise(operator, rightVector)
+                    .intoArray(result, i);
+        }
+        for (int i = bound; i < length; i++) {
+            result[i] = Expression.apply(operation, left[i], right);
+        }
+    }
+
+    @Override
+    public void apply(byte operation, double left, double[] right, double[] result, int length) {
+        VectorOperators.Binary operator = operator(operation);
+        DoubleVector leftVector = DoubleVector.broadcast(SPECIES, left);
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            leftVector.lanewise(operator, DoubleVector.fromArray(SPECIES, right, i))
+                    .intoArray(result, i);
+        }
+        for (int i = bound; i < length; i++) {
+            result[i] = Expression.apply(operation, left, right[i]);
+        }
+    }
+
+    @Override
+    public void negate(double[] values, double[] result, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).neg().intoArray(result, i);
+        }
+        for (int i = bound; i < length; i++) {
+            result[i] = -values[i];
+        }
+    }
+
+    private static void tail(byte operation, double[] left, double[] right, double[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = Expression.apply(operation, left[i], right[i]);
+        }
+    }
+
+    private static VectorOperators.Binary operator(byte operation) {
+        return switch (operation) {
+            case Expression.ADD -> VectorOperators.ADD;
+            case Expression.SUBTRACT -> VectorOperators.SUB;
+            case Expression.MULTIPLY -> VectorOperators.MUL;
+            case Expression.DIVIDE -> VectorOperators.DIV;
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+/**
+ * Equation that was parsed once and can be evaluated many times
+ * Immutable and can be shared between threads
+ *
+ * @see MathParserService#compile(String)
+ */
+public interface CompiledExpression {
+
+    /**
+     * @return equation after preparing (without spaces, with dots instead of commas)
+     */
+    String getEquation();
+
+    /**
+     * @return names of variables in order of values for {@link #evaluate(double[])}
+     * empty array if equation hasn't variables
+     *
+     * @see MathParserService#compile(String, String...)
+     */
+    String[] getVariables();
+
+    /**
+     * @return number of numbers in equation
+     *
+     * @see MathParserService#numberOfNumbers(String)
+     */
+    int numberOfNumbers();
+
+    /**
+     * Calculates result of equation without variables
+     *
+     * @return result of equation
+     *
+     * @throws IllegalArgumentException if equation has variables
+     *
+     * @see MathParserService#calculate(String)
+     */
+    double evaluate();
+
+    /**
+     * Calculates result of equation with values of variables
+     * Doesn't allocate memory, so can be called millions of times
+     *
+     * @param values of variables in order of {@link #getVariables()}
+     *
+     * @return result of equation
+     *
+     * @throws IllegalArgumentException if there are fewer values than variables
+     */
+    double evaluate(double[] values);
+
+    /**
+     * Calculates results of equation for whole columns of values of variables
+     * Evaluates equation operation by operation over columns, instead of row by row
+     *
+     * @param columns of values of variables in order of {@link #getVariables()}, all columns must have equal length
+     *
+     * @return column of results, result[i] is result for values columns[0][i], columns[1][i] ...
+     *
+     * @throws IllegalArgumentException if there are fewer columns than variables or columns have different length
+     */
+    double[] evaluate(double[][] columns);
+}
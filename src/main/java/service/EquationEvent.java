@@ -0,0 +1,46 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Change of saved equations that {@link EquationService} sends to its listeners
+ *
+ * @see EquationListener
+ * @see EquationService#addEquationListener(EquationListener)
+ */
+public class EquationEvent {
+
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED
+    }
+
+    private final Type type;
+    private final int[] ids;
+
+    /**
+     * @param type of change
+     * @param ids of changed equations
+     */
+    public EquationEvent(Type type, int[] ids){
+        this.type = type;
+        this.ids = ids;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return ids of changed equations
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + Arrays.toString(ids);
+    }
+}
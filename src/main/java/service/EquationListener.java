@@ -0,0 +1,16 @@
+package service;
+
+/**
+ * Listener of changes of saved equations
+ * Listener is called in thread that changed equations, after change was saved
+ *
+ * @see EquationEvent
+ * @see EquationService#addEquationListener(EquationListener)
+ */
+public interface EquationListener {
+
+    /**
+     * @param event with type of change and ids of changed equations
+     */
+    void equationsChanged(EquationEvent event);
+}
@@ -1,16 +1,20 @@
 package service;
 
 import model.Equation;
+import model.EquationTable;
 import repository.EquationRepository;
 import repository.EquationRepository_sql;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interface manages of saved equations
  * @see EquationService_impl
  */
-public interface EquationService {
+public interface EquationService extends AutoCloseable {
 
     /**
      * @return list of equations
@@ -21,6 +25,75 @@ public interface EquationService {
      */
     ArrayList<Equation>getAll();
 
+    /**
+     * @return ids of all equations in ascending order
+     *
+     * @see EquationService_impl#ids()
+     * @see EquationRepository#ids()
+     * @see EquationRepository_sql#ids()
+     */
+    int[] ids();
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return list of equations with id > afterId sorted by id
+     * empty list if limit <= 0 or if there are no equations after afterId
+     *
+     * @see EquationService_impl#page(int, int)
+     * @see EquationRepository#page(int, int)
+     * @see EquationRepository_sql#page(int, int)
+     */
+    ArrayList<Equation>page(int afterId, int limit);
+
+    /**
+     * @return columnar table of all equations in order of ids
+     *
+     * @see EquationService_impl#table()
+     * @see EquationRepository#table()
+     * @see EquationRepository_sql#table()
+     */
+    EquationTable table();
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return columnar table of equations with id > afterId sorted by id
+     * empty table if limit <= 0 or if there are no equations after afterId
+     *
+     * @see EquationService_impl#table(int, int)
+     * @see EquationRepository#table(int, int)
+     * @see EquationRepository_sql#table(int, int)
+     */
+    EquationTable table(int afterId, int limit);
+
+    /**
+     * Applies action to all equations without loading all of them to memory
+     *
+     * @param action that applied to every equation in order of ids
+     *
+     * @return number of equations that action was applied to
+     *
+     * @see EquationService_impl#forEach(Consumer)
+     * @see EquationRepository#forEach(Consumer)
+     * @see EquationRepository_sql#forEach(Consumer)
+     */
+    int forEach(Consumer<Equation> action);
+
+    /**
+     * @return lazy stream of all equations in order of ids
+     *
+     * @see EquationService_impl#stream()
+     * @see EquationRepository#stream()
+     */
+    Stream<Equation> stream();
+
     /**
      * @param id of equation that need to search
      *
@@ -47,6 +120,57 @@ public interface EquationService {
      */
     ArrayList<Equation>get(String condition, double result);
 
+    /**
+     * @param text that equation contains
+     *
+     * @param offset number of best equations that are skipped (equations of previous pages)
+     *
+     * @param limit maximum number of equations
+     *
+     * @return list of equations that contain text, best first
+     * empty list if text == null, text is empty or limit <= 0
+     *
+     * @see EquationService_impl#search(String, int, int)
+     * @see EquationRepository#search(String, int, int)
+     * @see EquationRepository_sql#search(String, int, int)
+     */
+    ArrayList<Equation>search(String text, int offset, int limit);
+
+    /**
+     * @param equation text of equation in any form
+     *
+     * @return equation with the same canonical form
+     * null if equation == null or there is no such equation
+     *
+     * @see EquationService_impl#find(String)
+     * @see EquationRepository#find(String)
+     * @see EquationRepository_sql#find(String)
+     */
+    Equation find(String equation);
+
+    /**
+     * @return hashes of canonical forms of all equations
+     *
+     * @see EquationService_impl#canonicalHashes()
+     * @see EquationRepository#canonicalHashes()
+     * @see EquationRepository_sql#canonicalHashes()
+     */
+    long[] canonicalHashes();
+
+    /**
+     * @param from minimal result (inclusive)
+     *
+     * @param to maximal result (inclusive)
+     *
+     * @return list of equations with results from range
+     * empty list if from > to
+     *
+     * @see EquationService_impl#between(double, double)
+     * @see EquationRepository#between(double, double)
+     * @see EquationRepository_sql#between(double, double)
+     */
+    ArrayList<Equation>between(double from, double to);
+
     /**
      * Changes equation with id of equation from @param
      *
@@ -61,9 +185,24 @@ public interface EquationService {
      */
     boolean set(Equation equation);
 
+    /**
+     * Changes all equations with ids of equations from collection at once
+     *
+     * @param equations to change
+     *
+     * @return true for every equation that was changed in order of collection
+     * false for equation that wasn't changed
+     *
+     * @see EquationService_impl#setAll(Collection)
+     * @see EquationRepository#setAll(Collection)
+     * @see EquationRepository_sql#setAll(Collection)
+     */
+    boolean[] setAll(Collection<Equation> equations);
+
 
     /**
      * Adds new equation
+     * Sets generated id to equation
      *
      * @param equation to add
      *
@@ -76,6 +215,52 @@ public interface EquationService {
      */
     boolean add(Equation equation);
 
+    /**
+     * Adds equation if there is no equation with the same canonical form,
+     * so repeated equation gets stored result instead of new row
+     *
+     * @param equation to add
+     *
+     * @return equation with the same canonical form that was added before
+     * equation from @param with generated id if it was added
+     * null if equation == null or it wasn't added
+     *
+     * @see EquationService_impl#addOrGet(Equation)
+     * @see EquationRepository#addOrGet(Equation)
+     * @see EquationRepository_sql#addOrGet(Equation)
+     */
+    Equation addOrGet(Equation equation);
+
+    /**
+     * Adds all equations that haven't equation with the same canonical form at once
+     *
+     * @param equations to add
+     *
+     * @return equations in order of collection: equation with the same canonical form that was added before
+     * or equation from collection with generated id if it was added
+     * null for equation that is null or wasn't added
+     *
+     * @see EquationService_impl#addOrGetAll(Collection)
+     * @see EquationRepository#addOrGetAll(Collection)
+     * @see EquationRepository_sql#addOrGetAll(Collection)
+     */
+    Equation[] addOrGetAll(Collection<Equation> equations);
+
+    /**
+     * Adds all equations at once
+     * Sets generated ids to equations
+     *
+     * @param equations to add
+     *
+     * @return ids of added equations in order of collection
+     * -1 for equation that wasn't added
+     *
+     * @see EquationService_impl#addAll(Collection)
+     * @see EquationRepository#addAll(Collection)
+     * @see EquationRepository_sql#addAll(Collection)
+     */
+    int[] addAll(Collection<Equation> equations);
+
     /**
      * Removes equation with this id
      *
@@ -89,4 +274,42 @@ public interface EquationService {
      * @see EquationRepository_sql#remove(int)
      */
     boolean remove(int id);
+
+    /**
+     * Removes all equations with this ids at once
+     *
+     * @param ids of equations that need to removed
+     *
+     * @return true for every equation that was removed in order of ids
+     * false for equation that wasn't removed
+     *
+     * @see EquationService_impl#removeAll(int[])
+     * @see EquationRepository#removeAll(int[])
+     * @see EquationRepository_sql#removeAll(int[])
+     */
+    boolean[] removeAll(int[] ids);
+
+    /**
+     * @param listener that will be notified after equations were added, changed or removed
+     *
+     * @see EquationService_impl#addEquationListener(EquationListener)
+     */
+    void addEquationListener(EquationListener listener);
+
+    /**
+     * @param listener that won't be notified anymore
+     *
+     * @see EquationService_impl#removeEquationListener(EquationListener)
+     */
+    void removeEquationListener(EquationListener listener);
+
+    /**
+     * Releases resources of service
+     *
+     * @see EquationService_impl#close()
+     * @see EquationRepository#close()
+     * @see EquationRepository_sql#close()
+     */
+    @Override
+    void close();
 }
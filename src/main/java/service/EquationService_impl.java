@@ -1,10 +1,17 @@
 package service;
 
 import model.Equation;
+import model.EquationTable;
 import repository.EquationRepository;
 import repository.EquationRepository_sql;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementation of {@link EquationService} by using {@link EquationRepository} to storage of equation
@@ -12,6 +19,11 @@ import java.util.ArrayList;
 public class EquationService_impl implements EquationService {
     private final EquationRepository repository;
 
+    /**
+     * Listeners of changes, list can be changed while event is sent
+     */
+    private final List<EquationListener> listeners = new CopyOnWriteArrayList<>();
+
     public EquationService_impl(){
         this.repository = new EquationRepository_sql();
     }
@@ -31,6 +43,84 @@ public class EquationService_impl implements EquationService {
         return repository.getAll();
     }
 
+    /**
+     * @return ids of all equations in ascending order
+     *
+     * @see EquationRepository#ids()
+     * @see EquationRepository_sql#ids()
+     */
+    @Override
+    public int[] ids() {
+        return repository.ids();
+    }
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return list of equations with id > afterId sorted by id
+     * empty list if limit <= 0 or if there are no equations after afterId
+     *
+     * @see EquationRepository#page(int, int)
+     * @see EquationRepository_sql#page(int, int)
+     */
+    @Override
+    public ArrayList<Equation> page(int afterId, int limit) {
+        return repository.page(afterId, limit);
+    }
+
+    /**
+     * @return columnar table of all equations in order of ids
+     *
+     * @see EquationRepository#table()
+     * @see EquationRepository_sql#table()
+     */
+    @Override
+    public EquationTable table() {
+        return repository.table();
+    }
+
+    /**
+     * @param afterId id of last equation of previous page
+     * 0 for first page
+     *
+     * @param limit maximum number of equations in page
+     *
+     * @return columnar table of equations with id > afterId sorted by id
+     *
+     * @see EquationRepository#table(int, int)
+     * @see EquationRepository_sql#table(int, int)
+     */
+    @Override
+    public EquationTable table(int afterId, int limit) {
+        return repository.table(afterId, limit);
+    }
+
+    /**
+     * @param action that applied to every equation in order of ids
+     *
+     * @return number of equations that action was applied to
+     *
+     * @see EquationRepository#forEach(Consumer)
+     * @see EquationRepository_sql#forEach(Consumer)
+     */
+    @Override
+    public int forEach(Consumer<Equation> action) {
+        return repository.forEach(action);
+    }
+
+    /**
+     * @return lazy stream of all equations in order of ids
+     *
+     * @see EquationRepository#stream()
+     */
+    @Override
+    public Stream<Equation> stream() {
+        return repository.stream();
+    }
+
     /**
      * @param id of equation who need to search in repository
      *
@@ -61,6 +151,65 @@ public class EquationService_impl implements EquationService {
         return repository.get(condition, result);
     }
 
+    /**
+     * @param from minimal result (inclusive)
+     *
+     * @param to maximal result (inclusive)
+     *
+     * @return list of equations with results from range
+     * empty list if from > to
+     *
+     * @see EquationRepository#between(double, double)
+     * @see EquationRepository_sql#between(double, double)
+     */
+    @Override
+    public ArrayList<Equation> between(double from, double to) {
+        return repository.between(from, to);
+    }
+
+    /**
+     * @param text that equation contains
+     *
+     * @param offset number of best equations that are skipped (equations of previous pages)
+     *
+     * @param limit maximum number of equations
+     *
+     * @return list of equations that contain text, best first
+     * empty list if text == null, text is empty or limit <= 0
+     *
+     * @see EquationRepository#search(String, int, int)
+     * @see EquationRepository_sql#search(String, int, int)
+     */
+    @Override
+    public ArrayList<Equation> search(String text, int offset, int limit) {
+        return repository.search(text, offset, limit);
+    }
+
+    /**
+     * @param equation text of equation in any form
+     *
+     * @return equation with the same canonical form
+     * null if equation == null or there is no such equation
+     *
+     * @see EquationRepository#find(String)
+     * @see EquationRepository_sql#find(String)
+     */
+    @Override
+    public Equation find(String equation) {
+        return repository.find(equation);
+    }
+
+    /**
+     * @return hashes of canonical forms of all equations
+     *
+     * @see EquationRepository#canonicalHashes()
+     * @see EquationRepository_sql#canonicalHashes()
+     */
+    @Override
+    public long[] canonicalHashes() {
+        return repository.canonicalHashes();
+    }
+
     /**
      * Changes equation with id of equation from @param
      *
@@ -74,7 +223,35 @@ public class EquationService_impl implements EquationService {
      */
     @Override
     public boolean set(Equation equation) {
-        return repository.set(equation);
+        boolean changed = repository.set(equation);
+        if (changed) fire(EquationEvent.Type.UPDATED, new int[]{equation.getId()});
+        return changed;
+    }
+
+    /**
+     * Changes all equations with ids of equations from collection at once
+     *
+     * @param equations to change
+     *
+     * @return true for every equation that was changed in order of collection
+     * false for equation that wasn't changed
+     *
+     * @see EquationRepository#setAll(Collection)
+     * @see EquationRepository_sql#setAll(Collection)
+     */
+    @Override
+    public boolean[] setAll(Collection<Equation> equations) {
+        boolean[] changed = repository.setAll(equations);
+        int[] ids = new int[changed.length];
+        int count = 0;
+        int index = 0;
+        if (equations != null) {
+            for (Equation equation : equations) {
+                if (changed[index++]) ids[count++] = equation.getId();
+            }
+        }
+        fire(EquationEvent.Type.UPDATED, Arrays.copyOf(ids, count));
+        return changed;
     }
 
     /**
@@ -90,7 +267,76 @@ public class EquationService_impl implements EquationService {
      */
     @Override
     public boolean add(Equation equation) {
-        return repository.add(equation);
+        boolean added = repository.add(equation);
+        if (added) fire(EquationEvent.Type.ADDED, new int[]{equation.getId()});
+        return added;
+    }
+
+    /**
+     * Adds equation if there is no equation with the same canonical form
+     * Listeners are notified only if equation was added
+     *
+     * @param equation to add
+     *
+     * @return equation with the same canonical form that was added before
+     * equation from @param with generated id if it was added
+     * null if equation == null or it wasn't added
+     *
+     * @see EquationRepository#addOrGet(Equation)
+     * @see EquationRepository_sql#addOrGet(Equation)
+     */
+    @Override
+    public Equation addOrGet(Equation equation) {
+        Equation stored = repository.addOrGet(equation);
+        if (stored != null && stored == equation) fire(EquationEvent.Type.ADDED, new int[]{equation.getId()});
+        return stored;
+    }
+
+    /**
+     * Adds all equations that haven't equation with the same canonical form at once
+     * Listeners are notified only about added equations
+     *
+     * @param equations to add
+     *
+     * @return equations in order of collection: equation with the same canonical form that was added before
+     * or equation from collection with generated id if it was added
+     * null for equation that is null or wasn't added
+     *
+     * @see EquationRepository#addOrGetAll(Collection)
+     * @see EquationRepository_sql#addOrGetAll(Collection)
+     */
+    @Override
+    public Equation[] addOrGetAll(Collection<Equation> equations) {
+        Equation[] stored = repository.addOrGetAll(equations);
+        if (equations == null) return stored;
+
+        int[] ids = new int[stored.length];
+        int size = 0;
+        int index = 0;
+        for (Equation equation : equations) {
+            if (equation != null && stored[index] == equation) ids[size++] = equation.getId();
+            index++;
+        }
+        fire(EquationEvent.Type.ADDED, Arrays.copyOf(ids, size));
+        return stored;
+    }
+
+    /**
+     * Adds all equations at once
+     *
+     * @param equations to add
+     *
+     * @return ids of added equations in order of collection
+     * -1 for equation that wasn't added
+     *
+     * @see EquationRepository#addAll(Collection)
+     * @see EquationRepository_sql#addAll(Collection)
+     */
+    @Override
+    public int[] addAll(Collection<Equation> equations) {
+        int[] ids = repository.addAll(equations);
+        fire(EquationEvent.Type.ADDED, Arrays.stream(ids).filter(id -> id > 0).toArray());
+        return ids;
     }
 
     /**
@@ -106,6 +352,74 @@ public class EquationService_impl implements EquationService {
      */
     @Override
     public boolean remove(int id) {
-        return repository.remove(id);
+        boolean removed = repository.remove(id);
+        if (removed) fire(EquationEvent.Type.REMOVED, new int[]{id});
+        return removed;
+    }
+
+    /**
+     * Removes all equations with this ids at once
+     *
+     * @param ids of equations who need to removed
+     *
+     * @return true for every equation that was removed in order of ids
+     * false for equation that wasn't removed
+     *
+     * @see EquationRepository#removeAll(int[])
+     * @see EquationRepository_sql#removeAll(int[])
+     */
+    @Override
+    public boolean[] removeAll(int[] ids) {
+        boolean[] removed = repository.removeAll(ids);
+        int[] removedIds = new int[removed.length];
+        int count = 0;
+        for (int index = 0; index < removed.length; index++) {
+            if (removed[index]) removedIds[count++] = ids[index];
+        }
+        fire(EquationEvent.Type.REMOVED, Arrays.copyOf(removedIds, count));
+        return removed;
+    }
+
+    /**
+     * @param listener that will be notified after equations were added, changed or removed
+     */
+    @Override
+    public void addEquationListener(EquationListener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    /**
+     * @param listener that won't be notified anymore
+     */
+    @Override
+    public void removeEquationListener(EquationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notifies all listeners about change
+     * Nothing is sent if ids are empty
+     *
+     * @param type of change
+     * @param ids of changed equations
+     */
+    private void fire(EquationEvent.Type type, int[] ids){
+        if (ids.length == 0 || listeners.isEmpty()) return;
+
+        EquationEvent event = new EquationEvent(type, ids);
+        for (EquationListener listener : listeners) {
+            listener.equationsChanged(event);
+        }
+    }
+
+    /**
+     * Closes repository
+     *
+     * @see EquationRepository#close()
+     * @see EquationRepository_sql#close()
+     */
+    @Override
+    public void close() {
+        repository.close();
     }
 }
@@ -0,0 +1,323 @@
+package service;
+
+import model.Equation;
+import model.EquationTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link EquationService} that answers searches by results from in-memory {@link ResultIndex}
+ * instead of other {@link EquationService}, other requests are sent to other service
+ * Index is built from {@link EquationService#table()} by first search and then it is changed with every change
+ * that was made through this service, other service stays the source of truth
+ * Listeners are notified after index was changed, so search from listener finds changed equations
+ * Changes MUST! be made only through this service, changes made directly through other service aren't seen by index
+ *
+ * @see ResultIndex
+ */
+public class EquationService_indexed implements EquationService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EquationService_indexed.class);
+
+    private final EquationService service;
+
+    /**
+     * Index of results, MUST! be used only under lock of this
+     * null if it wasn't built yet
+     */
+    private ResultIndex index;
+
+    /**
+     * Lock of changes, so index gets changes in the same order as other service
+     */
+    private final Object changes = new Object();
+
+    /**
+     * Listeners of changes, list can be changed while event is sent
+     */
+    private final List<EquationListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param service with equations
+     */
+    public EquationService_indexed(EquationService service){
+        this.service = service;
+    }
+
+    @Override
+    public ArrayList<Equation> getAll() {
+        return service.getAll();
+    }
+
+    @Override
+    public int[] ids() {
+        return service.ids();
+    }
+
+    @Override
+    public ArrayList<Equation> page(int afterId, int limit) {
+        return service.page(afterId, limit);
+    }
+
+    @Override
+    public EquationTable table() {
+        return service.table();
+    }
+
+    @Override
+    public EquationTable table(int afterId, int limit) {
+        return service.table(afterId, limit);
+    }
+
+    @Override
+    public int forEach(Consumer<Equation> action) {
+        return service.forEach(action);
+    }
+
+    @Override
+    public Stream<Equation> stream() {
+        return service.stream();
+    }
+
+    @Override
+    public Equation get(int id) {
+        return service.get(id);
+    }
+
+    /**
+     * Search by index with binary search, doesn't send request to other service
+     *
+     * @param condition of search (<, <=, =, >=, >)
+     *
+     * @param result number for compare by condition of search with equations results
+     *
+     * @return list of equations that match the search terms sorted by ids
+     * empty list if condition == null or if condition has incorrect characters
+     */
+    @Override
+    public synchronized ArrayList<Equation> get(String condition, double result) {
+        return index().get(condition, result);
+    }
+
+    /**
+     * Search by index with binary search, doesn't send request to other service
+     *
+     * @param from minimal result (inclusive)
+     *
+     * @param to maximal result (inclusive)
+     *
+     * @return list of equations with results from range sorted by ids
+     * empty list if from > to or if from or to is NaN
+     */
+    @Override
+    public synchronized ArrayList<Equation> between(double from, double to) {
+        return index().between(from, to);
+    }
+
+    @Override
+    public ArrayList<Equation> search(String text, int offset, int limit) {
+        return service.search(text, offset, limit);
+    }
+
+    @Override
+    public Equation find(String equation) {
+        return service.find(equation);
+    }
+
+    @Override
+    public long[] canonicalHashes() {
+        return service.canonicalHashes();
+    }
+
+    @Override
+    public boolean set(Equation equation) {
+        synchronized (changes) {
+            boolean changed = service.set(equation);
+            if (changed) {
+                synchronized (this) {
+                    if (index != null) index.put(equation);
+                }
+                fire(EquationEvent.Type.UPDATED, new int[]{equation.getId()});
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean[] setAll(Collection<Equation> equations) {
+        synchronized (changes) {
+            boolean[] changed = service.setAll(equations);
+            if (equations == null) return changed;
+
+            int[] ids = new int[changed.length];
+            int size = 0;
+            synchronized (this) {
+                int position = 0;
+                for (Equation equation : equations) {
+                    if (changed[position++]) {
+                        if (index != null) index.put(equation);
+                        ids[size++] = equation.getId();
+                    }
+                }
+            }
+            fire(EquationEvent.Type.UPDATED, Arrays.copyOf(ids, size));
+            return changed;
+        }
+    }
+
+    @Override
+    public boolean add(Equation equation) {
+        synchronized (changes) {
+            boolean added = service.add(equation);
+            if (added) {
+                synchronized (this) {
+                    if (index != null) index.put(equation);
+                }
+                fire(EquationEvent.Type.ADDED, new int[]{equation.getId()});
+            }
+            return added;
+        }
+    }
+
+    @Override
+    public Equation addOrGet(Equation equation) {
+        synchronized (changes) {
+            Equation stored = service.addOrGet(equation);
+            if (stored != null && stored == equation) {
+                synchronized (this) {
+                    if (index != null) index.put(equation);
+                }
+                fire(EquationEvent.Type.ADDED, new int[]{equation.getId()});
+            }
+            return stored;
+        }
+    }
+
+    @Override
+    public Equation[] addOrGetAll(Collection<Equation> equations) {
+        synchronized (changes) {
+            Equation[] stored = service.addOrGetAll(equations);
+            if (equations == null) return stored;
+
+            int[] ids = new int[stored.length];
+            int size = 0;
+            synchronized (this) {
+                int position = 0;
+                for (Equation equation : equations) {
+                    if (stored[position++] == equation && equation != null) {
+                        if (index != null) index.put(equation);
+                        ids[size++] = equation.getId();
+                    }
+                }
+            }
+            fire(EquationEvent.Type.ADDED, Arrays.copyOf(ids, size));
+            return stored;
+        }
+    }
+
+    @Override
+    public int[] addAll(Collection<Equation> equations) {
+        synchronized (changes) {
+            int[] ids = service.addAll(equations);
+            if (equations == null) return ids;
+
+            synchronized (this) {
+                if (index != null) {
+                    int position = 0;
+                    for (Equation equation : equations) {
+                        if (ids[position++] > 0) index.put(equation);
+                    }
+                }
+            }
+            fire(EquationEvent.Type.ADDED, Arrays.stream(ids).filter(id -> id > 0).toArray());
+            return ids;
+        }
+    }
+
+    @Override
+    public boolean remove(int id) {
+        synchronized (changes) {
+            boolean removed = service.remove(id);
+            if (removed) {
+                synchronized (this) {
+                    if (index != null) index.remove(id);
+                }
+                fire(EquationEvent.Type.REMOVED, new int[]{id});
+            }
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean[] removeAll(int[] ids) {
+        synchronized (changes) {
+            boolean[] removed = service.removeAll(ids);
+            int[] removedIds = new int[removed.length];
+            int size = 0;
+            synchronized (this) {
+                for (int position = 0; position < removed.length; position++) {
+                    if (removed[position]) {
+                        if (index != null) index.remove(ids[position]);
+                        removedIds[size++] = ids[position];
+                    }
+                }
+            }
+            fire(EquationEvent.Type.REMOVED, Arrays.copyOf(removedIds, size));
+            return removed;
+        }
+    }
+
+    @Override
+    public void addEquationListener(EquationListener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    @Override
+    public void removeEquationListener(EquationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Drops index, it is built again by next search
+     */
+    public synchronized void invalidate(){
+        index = null;
+    }
+
+    /**
+     * Closes other service
+     */
+    @Override
+    public void close() {
+        service.close();
+    }
+
+    /**
+     * @return index, it is built if it wasn't built yet
+     * MUST! be called under lock of this
+     */
+    private ResultIndex index(){
+        if (index == null) {
+            long start = System.nanoTime();
+            index = new ResultIndex(service.table());
+            LOGGER.info("Index of results was built with {} equations in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return index;
+    }
+
+    private void fire(EquationEvent.Type type, int[] ids){
+        if (ids.length == 0 || listeners.isEmpty()) return;
+
+        EquationEvent event = new EquationEvent(type, ids);
+        for (EquationListener listener : listeners) {
+            listener.equationsChanged(event);
+        }
+    }
+}
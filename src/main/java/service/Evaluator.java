@@ -0,0 +1,17 @@
+package service;
+
+/**
+ * Equation that was compiled to bytecode
+ * Implemented by hidden classes that generated by {@link BytecodeCompiler}
+ *
+ * @see MathParserService_bytecode
+ */
+interface Evaluator {
+
+    /**
+     * @param values of variables
+     *
+     * @return result of equation
+     */
+    double evaluate(double[] values);
+}
@@ -0,0 +1,235 @@
+package service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Equation compiled to reverse polish notation
+ * Evaluates directly on doubles without any string transformations
+ *
+ * @see ExpressionCompiler#compile(String, String[])
+ */
+final class Expression implements CompiledExpression {
+    static final byte NUMBER = 0;
+    static final byte ADD = 1;
+    static final byte SUBTRACT = 2;
+    static final byte MULTIPLY = 3;
+    static final byte DIVIDE = 4;
+    static final byte NEGATE = 5;
+    static final byte VARIABLE = 6;
+
+    private static final double[] NO_VALUES = new double[0];
+
+    /**
+     * Stack of evaluation for each thread, so evaluation doesn't allocate memory
+     */
+    private static final ThreadLocal<double[]> STACK = ThreadLocal.withInitial(() -> new double[16]);
+
+    private final String equation;
+
+    /**
+     * Names of variables in order of values for {@link #evaluate(double[])}
+     */
+    private final String[] variables;
+
+    /**
+     * Operations in order of execution
+     */
+    private final byte[] operations;
+
+    /**
+     * Numbers of equation in order of {@link #NUMBER} operations
+     */
+    private final double[] numbers;
+
+    /**
+     * Indexes of variables values in order of {@link #VARIABLE} operations
+     */
+    private final int[] variableIndexes;
+
+    /**
+     * Maximum depth of stack that needed to evaluate
+     */
+    private final int stackSize;
+
+    Expression(String equation, String[] variables, byte[] operations, double[] numbers, int[] variableIndexes, int stackSize){
+        this.equation = equation;
+        this.variables = variables;
+        this.operations = operations;
+        this.numbers = numbers;
+        this.variableIndexes = variableIndexes;
+        this.stackSize = stackSize;
+    }
+
+    byte[] operations(){
+        return operations;
+    }
+
+    double[] numbers(){
+        return numbers;
+    }
+
+    int[] variableIndexes(){
+        return variableIndexes;
+    }
+
+    int stackSize(){
+        return stackSize;
+    }
+
+    @Override
+    public String getEquation(){
+        return equation;
+    }
+
+    @Override
+    public String[] getVariables(){
+        return variables.clone();
+    }
+
+    @Override
+    public int numberOfNumbers(){
+        return numbers.length;
+    }
+
+    @Override
+    public double evaluate(){
+        return evaluate(NO_VALUES);
+    }
+
+    @Override
+    public double evaluate(double[] values){
+        if (values.length < variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " values of variables, but was " + values.length);
+        }
+
+        double[] stack = STACK.get();
+        if (stack.length < stackSize) {
+            stack = new double[stackSize];
+            STACK.set(stack);
+        }
+
+        int top = -1;
+        int number = 0;
+        int variable = 0;
+        for (byte operation : operations) {
+            switch (operation) {
+                case NUMBER -> stack[++top] = numbers[number++];
+                case VARIABLE -> stack[++top] = values[variableIndexes[variable++]];
+                case ADD -> {
+                    top--;
+                    stack[top] = stack[top] + stack[top + 1];
+                }
+                case SUBTRACT -> {
+                    top--;
+                    stack[top] = stack[top] - stack[top + 1];
+                }
+                case MULTIPLY -> {
+                    top--;
+                    stack[top] = stack[top] * stack[top + 1];
+                }
+                case DIVIDE -> {
+                    top--;
+                    stack[top] = stack[top] / stack[top + 1];
+                }
+                case NEGATE -> stack[top] = -stack[top];
+                default -> throw new IllegalStateException("Unknown operation: " + operation);
+            }
+        }
+        return stack[0];
+    }
+
+    @Override
+    public double[] evaluate(double[][] columns){
+        if (columns.length < variables.length) {
+            throw new IllegalArgumentException("Expected " + variables.length + " columns of variables, but was " + columns.length);
+        }
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        for (double[] column : columns) {
+            if (column.length != rows) throw new IllegalArgumentException("Columns must have equal length");
+        }
+
+        ColumnOperations columnOperations = ColumnOperations.INSTANCE;
+
+        // Element of stack is column (arrays[i] != null) or one number for all rows (arrays[i] == null)
+        double[][] arrays = new double[stackSize][];
+        double[] scalars = new double[stackSize];
+        boolean[] owned = new boolean[stackSize];
+        ArrayDeque<double[]> buffers = new ArrayDeque<>();
+
+        int top = -1;
+        int number = 0;
+        int variable = 0;
+        for (byte operation : operations) {
+            if (operation == NUMBER) {
+                ++top;
+                arrays[top] = null;
+                scalars[top] = numbers[number++];
+                owned[top] = false;
+            } else if (operation == VARIABLE) {
+                ++top;
+                arrays[top] = columns[variableIndexes[variable++]];
+                owned[top] = false;
+            } else if (operation == NEGATE) {
+                if (arrays[top] == null) {
+                    scalars[top] = -scalars[top];
+                } else {
+                    double[] result = owned[top] ? arrays[top] : buffer(buffers, rows);
+                    columnOperations.negate(arrays[top], result, rows);
+                    arrays[top] = result;
+                    owned[top] = true;
+                }
+            } else {
+                int right = top--;
+                double[] leftColumn = arrays[top];
+                double[] rightColumn = arrays[right];
+                if (leftColumn == null && rightColumn == null) {
+                    scalars[top] = apply(operation, scalars[top], scalars[right]);
+                    continue;
+                }
+
+                double[] result = owned[top] ? leftColumn : owned[right] ? rightColumn : buffer(buffers, rows);
+                if (leftColumn == null) {
+                    columnOperations.apply(operation, scalars[top], rightColumn, result, rows);
+                } else if (rightColumn == null) {
+                    columnOperations.apply(operation, leftColumn, scalars[right], result, rows);
+                } else {
+                    columnOperations.apply(operation, leftColumn, rightColumn, result, rows);
+                }
+                if (owned[right] && rightColumn != result) buffers.push(rightColumn);
+
+                arrays[top] = result;
+                owned[top] = true;
+            }
+        }
+
+        if (arrays[0] == null) {
+            double[] result = new double[rows];
+            Arrays.fill(result, scalars[0]);
+            return result;
+        } else return owned[0] ? arrays[0] : arrays[0].clone();
+    }
+
+    /**
+     * @return free buffer from buffers or new one if there is no free buffers
+     */
+    private static double[] buffer(ArrayDeque<double[]> buffers, int rows){
+        double[] buffer = buffers.poll();
+        return buffer == null ? new double[rows] : buffer;
+    }
+
+    /**
+     * @param operation one of {@link #ADD}, {@link #SUBTRACT}, {@link #MULTIPLY}, {@link #DIVIDE}
+     *
+     * @return left (operation) right
+     */
+    static double apply(byte operation, double left, double right){
+        return switch (operation) {
+            case ADD -> left + right;
+            case SUBTRACT -> left - right;
+            case MULTIPLY -> left * right;
+            case DIVIDE -> left / right;
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+    }
+}
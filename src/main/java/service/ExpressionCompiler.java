@@ -0,0 +1,270 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Single pass compiler of equation to {@link Expression}
+ * Tokenizes equation and builds reverse polish notation by shunting-yard algorithm
+ *
+ * @see Expression
+ * @see MathParser#calculate(String)
+ */
+final class ExpressionCompiler {
+    private static final byte OPEN_PARENTHESIS = -1;
+
+    /**
+     * Powers of ten that can be exactly represented by double
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Maximum mantissa that can be exactly represented by double
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final String equation;
+    private final String[] variables;
+
+    private byte[] operations;
+    private int operationsCount = 0;
+
+    private double[] numbers;
+    private int numbersCount = 0;
+
+    private int[] variableIndexes;
+    private int variableIndexesCount = 0;
+
+    private byte[] operators;
+    private int operatorsCount = 0;
+
+    private int depth = 0;
+    private int maxDepth = 0;
+
+    private ExpressionCompiler(String equation, String[] variables){
+        this.equation = equation;
+        this.variables = variables;
+
+        int capacity = Math.max(equation.length(), 1);
+        this.operations = new byte[capacity];
+        this.numbers = new double[capacity / 2 + 1];
+        this.variableIndexes = new int[variables.length == 0 ? 0 : capacity / 2 + 1];
+        this.operators = new byte[capacity];
+    }
+
+    /**
+     * Compiles equation without variables to {@link Expression}
+     *
+     * @param equation MUST! be after {@link MathParser#prepare(String)}
+     *
+     * @return compiled equation
+     * null if equation == null or equation can't be compiled
+     */
+    static Expression compile(String equation){
+        return compile(equation, new String[0]);
+    }
+
+    /**
+     * Compiles equation with variables to {@link Expression}
+     *
+     * @param equation MUST! be after {@link MathParser#prepare(String)}
+     * @param variables names of variables, index of name is index of value in {@link Expression#evaluate(double[])}
+     *
+     * @return compiled equation
+     * null if equation == null or equation can't be compiled
+     */
+    static Expression compile(String equation, String[] variables){
+        return equation == null ? null : new ExpressionCompiler(equation, variables).compile();
+    }
+
+    private Expression compile(){
+        boolean expectNumber = true;
+        int length = equation.length();
+        int index = 0;
+        while (index < length) {
+            char c = equation.charAt(index);
+            if (isDigit(c)) {
+                if (!expectNumber) return null;
+
+                index = number(index, false);
+                if (index < 0) return null;
+                expectNumber = false;
+                continue;
+            } else if (isVariableStart(c)) {
+                if (!expectNumber) return null;
+
+                index = variable(index);
+                if (index < 0) return null;
+                expectNumber = false;
+                continue;
+            } else if (c == '-' && expectNumber) {
+                if (index + 1 < length && isDigit(equation.charAt(index + 1))) {
+                    index = number(index + 1, true);
+                    if (index < 0) return null;
+                    expectNumber = false;
+                    continue;
+                } else pushOperator(Expression.NEGATE);
+            } else if (c == '+' || c == '-' || c == '*' || c == '/') {
+                if (expectNumber) return null;
+
+                byte operator = operator(c);
+                while (operatorsCount > 0 && priority(operators[operatorsCount - 1]) >= priority(operator)) {
+                    emit(operators[--operatorsCount]);
+                }
+                pushOperator(operator);
+                expectNumber = true;
+            } else if (c == '(') {
+                if (!expectNumber) return null;
+
+                pushOperator(OPEN_PARENTHESIS);
+            } else if (c == ')') {
+                if (expectNumber) return null;
+
+                while (operatorsCount > 0 && operators[operatorsCount - 1] != OPEN_PARENTHESIS) {
+                    emit(operators[--operatorsCount]);
+                }
+                if (operatorsCount == 0) return null;
+                operatorsCount--;
+            } else return null;
+
+            index++;
+        }
+
+        if (expectNumber) return null;
+
+        while (operatorsCount > 0) {
+            byte operator = operators[--operatorsCount];
+            if (operator == OPEN_PARENTHESIS) return null;
+            emit(operator);
+        }
+
+        return new Expression(equation, variables.clone(),
+                Arrays.copyOf(operations, operationsCount),
+                Arrays.copyOf(numbers, numbersCount),
+                Arrays.copyOf(variableIndexes, variableIndexesCount),
+                maxDepth);
+    }
+
+    /**
+     * Reads number that starts from index and emits it
+     *
+     * @param index of first digit of number
+     * @param negative true if number has sign '-' before
+     *
+     * @return index after number
+     * -1 if number has incorrect format
+     */
+    private int number(int index, boolean negative){
+        int length = equation.length();
+        int start = index;
+        long mantissa = 0;
+        int fractionDigits = 0;
+        boolean exact = true;
+        boolean dotHasAlreadyBeen = false;
+
+        for (; index < length; index++) {
+            char c = equation.charAt(index);
+            if (isDigit(c)) {
+                if (exact) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (dotHasAlreadyBeen) fractionDigits++;
+                    exact = mantissa <= MAX_EXACT_MANTISSA && fractionDigits < POWERS_OF_TEN.length;
+                }
+            } else if (c == '.' && !dotHasAlreadyBeen) {
+                if (index + 1 == length || !isDigit(equation.charAt(index + 1))) return -1;
+                dotHasAlreadyBeen = true;
+            } else break;
+        }
+
+        double number = exact
+                ? mantissa / POWERS_OF_TEN[fractionDigits]
+                : Double.parseDouble(equation.substring(start, index));
+        emitNumber(negative ? -number : number);
+        return index;
+    }
+
+    /**
+     * Reads name of variable that starts from index and emits it
+     *
+     * @param index of first character of name
+     *
+     * @return index after name
+     * -1 if variable with this name is unknown
+     */
+    private int variable(int index){
+        int start = index;
+        while (index < equation.length() && isVariablePart(equation.charAt(index))) index++;
+
+        int nameLength = index - start;
+        for (int variable = 0; variable < variables.length; variable++) {
+            String name = variables[variable];
+            if (name != null && name.length() == nameLength && equation.startsWith(name, start)) {
+                emitVariable(variable);
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char c){
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isVariableStart(char c){
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isVariablePart(char c){
+        return isVariableStart(c) || isDigit(c);
+    }
+
+    private static byte operator(char c){
+        return switch (c) {
+            case '+' -> Expression.ADD;
+            case '-' -> Expression.SUBTRACT;
+            case '*' -> Expression.MULTIPLY;
+            default -> Expression.DIVIDE;
+        };
+    }
+
+    private static int priority(byte operator){
+        return switch (operator) {
+            case Expression.ADD, Expression.SUBTRACT -> 1;
+            case Expression.MULTIPLY, Expression.DIVIDE -> 2;
+            case Expression.NEGATE -> 3;
+            default -> 0;
+        };
+    }
+
+    private void pushOperator(byte operator){
+        if (operatorsCount == operators.length) operators = Arrays.copyOf(operators, operatorsCount * 2);
+        operators[operatorsCount++] = operator;
+    }
+
+    private void emitNumber(double number){
+        if (numbersCount == numbers.length) numbers = Arrays.copyOf(numbers, numbersCount * 2);
+        numbers[numbersCount++] = number;
+        emit(Expression.NUMBER);
+    }
+
+    private void emitVariable(int variable){
+        if (variableIndexesCount == variableIndexes.length) {
+            variableIndexes = Arrays.copyOf(variableIndexes, variableIndexesCount * 2 + 1);
+        }
+        variableIndexes[variableIndexesCount++] = variable;
+        emit(Expression.VARIABLE);
+    }
+
+    private void emit(byte operation){
+        if (operationsCount == operations.length) operations = Arrays.copyOf(operations, operationsCount * 2);
+        operations[operationsCount++] = operation;
+
+        if (operation == Expression.NUMBER || operation == Expression.VARIABLE) {
+            maxDepth = Math.max(maxDepth, ++depth);
+        } else if (operation != Expression.NEGATE) {
+            depth--;
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.ArrayList;
+import metrics.Tracer;
+import model.CanonicalForm;
 
 /**
  * The implementation of MathParserService needed to get the result of equation string
  *
  * @see MathParserService
  * @see #calculate(String equation)
+ * @see Tracer
  */
 public class MathParser implements MathParserService {
-    private static final Logger LOGGER = LoggerFactory.getLogger(MathParser.class);
+    /**
+     * Traces sampled calls, logs nothing if tracing is disabled
+     *
+     * @see Tracer#SAMPLING_PROPERTY
+     */
+    private static final Tracer TRACER = Tracer.of(MathParser.class);
+
+    private static final String[] NO_VARIABLES = new String[0];
 
     /**
      * Calculates the number of numbers in an equation
@@ -24,33 +30,12 @@ public class MathParser implements MathParserService {
      */
     @Override
     public int numberOfNumbers(String equation){
-        LOGGER.debug("""
-                numberOfNumbers inputs:
-                equation = {}"""
-                , equation);
+        long trace = TRACER.start();
 
-        if (!equationIsCorrect(equation)){
-            LOGGER.debug("Equation is not correct");
-            return 0;
-        }else equation = prepare(equation);
-
-        LOGGER.debug("Equation after prepare = {}", equation);
-
-        boolean numberStarted = false;
-        int result = 0;
-        char[] chars = equation.toCharArray();
-        for (char c : chars){
-            if (Character.isDigit(c)){
-                if (!numberStarted) {
-                    result++;
-                    numberStarted = true;
-                }
-            }else if (c != '.'){
-                numberStarted = false;
-            }
-        }
+        CompiledExpression expression = compile(equation);
+        int result = expression == null ? 0 : expression.numberOfNumbers();
 
-        LOGGER.debug("Equation has number of numbers = {}", result);
+        TRACER.end(trace, "numberOfNumbers", length(equation), equation);
         return result;
     }
 
@@ -63,21 +48,31 @@ public class MathParser implements MathParserService {
      */
     @Override
     public boolean equationIsCorrect(String equation){
-        LOGGER.debug("""
-                equationIsCorrect inputs:
-                equation = {}"""
-                , equation);
+        long trace = TRACER.start();
 
-        if (equation == null) return false;
+        boolean result = compile(equation) != null;
 
-        equation = prepare(equation);
+        TRACER.end(trace, "equationIsCorrect", length(equation), equation);
+        return result;
+    }
+
+    /**
+     * Checks the equation for the absence of incorrect characters and incorrect combinations of characters
+     * Doesn't check the order of numbers and actions, it's checked by {@link ExpressionCompiler#compile(String)}
+     *
+     * @param equation MUST! be after {@link #prepare(String)}
+     * @param variables true if equation can contain names of variables
+     *
+     * @return true if equation hasn't incorrect characters
+     */
+    private static boolean hasCorrectCharacters(String equation, boolean variables){
         char[]chars = equation.toCharArray();
         boolean dotHasAlreadyBeen = false;
         int openParentheses = 0;
         try {
             for (int index = 0; index < chars.length; index++) {
                 if (Character.isLetter(chars[index])) {
-                    return false;
+                    if (!variables) return false;
                 } else if (chars[index] == '.') {
                     if (!Character.isDigit(chars[index - 1]) || !Character.isDigit(chars[index + 1])) {
                         return false;
@@ -88,7 +83,7 @@ public class MathParser implements MathParserService {
                     }
                 } else if (chars[index] == '+' || chars[index] == '*' || chars[index] == '/') {
                     if (chars[index + 1] == '-') {
-                        if (!Character.isDigit(chars[index + 2])) return false;
+                        if (!isOperand(chars[index + 2], variables)) return false;
                     } else if (chars[index + 1] == '+' || chars[index + 1] == '*' || chars[index + 1] == '/') {
                         return false;
                     } else if (chars[index] == '/' && chars[index + 1] == '0' && chars[index + 2] != '.') {
@@ -97,9 +92,9 @@ public class MathParser implements MathParserService {
 
                     dotHasAlreadyBeen = false;
                 } else if (chars[index] == '-') {
-                    if (!Character.isDigit(chars[index + 1])) {
+                    if (!isOperand(chars[index + 1], variables)) {
                         if (chars[index + 1] != '-' && chars[index + 1] != '(') return false;
-                        if (chars[index + 1] == '-' && !Character.isDigit(chars[index + 2])) return false;
+                        if (chars[index + 1] == '-' && !isOperand(chars[index + 2], variables)) return false;
                         if (chars[index + 1] == ')') return false;
                     }
 
@@ -123,6 +118,13 @@ public class MathParser implements MathParserService {
         return openParentheses == 0;
     }
 
+    /**
+     * @return true if number or name of variable can start from this character
+     */
+    private static boolean isOperand(char c, boolean variables){
+        return Character.isDigit(c) || (variables && (Character.isLetter(c) || c == '_'));
+    }
+
     /**
      * Calculate result of equation
      * Can identify symbols '+', '-', '*', '/'
@@ -140,226 +142,70 @@ public class MathParser implements MathParserService {
      */
     @Override
     public String calculate(String equation){
-        LOGGER.debug("""
-                calculate inputs:
-                equation = {}"""
-                , equation);
+        long trace = TRACER.start();
 
-        if (equation == null){
-            return null;
-        }else equation = prepare(equation);
+        CompiledExpression expression = compile(equation);
+        String result = expression == null ? null : String.valueOf(expression.evaluate());
 
-        if (equationIsCorrect(equation)){
-            char[]chars = equation.toCharArray();
-            int left = -1;
-            int right = -1;
-            for (int index = 0;index< chars.length;index++){
-                if (chars[index] == '('){
-                    left = index;
-                    right = -1;
-                }else if (chars[index] == ')' && right == -1){
-                    right = index;
-                }
-            }
-
-            if (left == -1){
-                return parseDouble(equation);
-            }else {
-                String s = parseDouble(equation.substring(left+1, right));
-                return calculate(equation.substring(0, left) + s + equation.substring(right+1));
-            }
-        }else return null;
+        TRACER.end(trace, "calculate", length(equation), equation);
+        return result;
     }
 
     /**
-     * Calculates the result of an equation without nesting level
-     *
-     * @param equation without parentheses
-     *
-     * @return result of equation (double in String)
-     * null if equation == null
-     *
-     * @throws NumberFormatException if there are incorrect characters in the equation
+     * @return length of equation for tracing
+     * 0 if equation == null
      */
-    private String parseDouble(String equation){
-        return equation == null ? null : secondaryActions(priorityActions(prepare(equation)));
+    private static int length(String equation){
+        return equation == null ? 0 : equation.length();
     }
 
     /**
-     * This method removes from String all spaces and replaces commas to dots
-     * if the first characters in the equation is '+' they will be removed
-     * @see #parseDouble(String)
+     * Parses equation once to evaluate it many times
      *
-     * @param equation before transformation
+     * @param equation to compile
      *
-     * @return String without spaces and with dots instead of commas
-     * null if equation == null
+     * @return compiled equation
+     * null if equation == null or if equation has incorrect characters
+     *
+     * @see #compile(String, String...)
      */
-    private String prepare(String equation){
-        if (equation != null) {
-            char[] chars = equation.toCharArray();
-            ArrayList<Character> result = new ArrayList<>();
-            for (int index = 0;index < chars.length; index++) {
-                if (chars[index] == '+') {
-                    if (result.size() == 0 || (index > 0 && chars[index-1] != ')' && !Character.isDigit(chars[index-1]))) {
-                        chars[index] = ' ';
-                        --index;
-                    }else result.add(chars[index]);
-                }else if (chars[index] == ',') {
-                    result.add('.');
-                }else if (chars[index] == '(' && index > 0){
-                    if (Character.isDigit(chars[index-1]) || chars[index-1] == ')'){
-                        result.add('*');
-                    }
-                    result.add(chars[index]);
-                } else if (chars[index] != ' ') {
-                    result.add(chars[index]);
-                }
-            }
-
-            StringBuilder builder = new StringBuilder(result.size());
-            for (char c : result) builder.append(c);
-
-            return builder.toString();
-        }else return null;
+    @Override
+    public CompiledExpression compile(String equation){
+        return compile(equation, NO_VARIABLES);
     }
 
     /**
-     * The method performs priority actions like "*" and "/"
+     * Parses equation with variables once to evaluate it many times with different values of variables
      *
-     * @param equation MUST! be after {@link #prepare(String)}
+     * @param equation to compile
+     * @param variables names of variables in order of values for {@link CompiledExpression#evaluate(double[])}
      *
-     * @return equation after priority actions
-     * null if equation == null
+     * @return compiled equation
+     * null if equation == null, if equation has incorrect characters or unknown variables
      *
-     * @throws NumberFormatException if there are incorrect characters in the equation
+     * @see ExpressionCompiler#compile(String, String[])
      */
-    private String priorityActions(String equation){
-        if (equation != null) {
-            char[]chars = equation.toCharArray();
-
-            int index = 0;
-            int left = 0;
-            int right = chars.length;
-            Double result = null;
-            while (index < chars.length) {
-                if (chars[index] == '*' || chars[index] == '/') {
-
-                    left = index-1;
-                    while (true) {
-                        if (left < 0 || chars[left] == '*' || chars[left] == '/' || chars[left] == '+') {
-                            left++;
-                            break;
-                        } else if (chars[left] == '-') {
-                            if (left-1 < 0) break;
-
-                            if (chars[left - 1] != '+' && chars[left - 1] != '-'
-                                    && chars[left - 1] != '*' && chars[left - 1] != '/') {
-                                left++;
-                            }
-                            break;
-                        } else left--;
-                    }
-                    double leftNumber = Double.parseDouble(equation.substring(left, index));
-
-                    right = index+1;
-                    while (true) {
-                        if (right == chars.length
-                                || chars[right] == '*' || chars[right] == '/' || chars[right] == '+') {
-                            break;
-                        } else if (chars[right] == '-') {
-                            if (chars[right - 1] == chars[index]) {
-                                right++;
-                            }else break;
-                        } else right++;
-                    }
-                    double rightNumber = Double.parseDouble(equation.substring(index+1, right));
-
-                    if (chars[index] == '*'){
-                        result = leftNumber * rightNumber;
-                    }else {
-                        result = leftNumber / rightNumber;
-                    }
-
-                    break;
-                } else index++;
-            }
+    @Override
+    public CompiledExpression compile(String equation, String ... variables){
+        if (equation == null || variables == null) return null;
 
-            if (result == null){
-                return equation;
-            }else {
-                String r = equation.substring(0, left) + result + equation.substring(right);
-                return priorityActions(r);
-            }
-        } else return null;
+        equation = prepare(equation);
+        return hasCorrectCharacters(equation, variables.length > 0)
+                ? ExpressionCompiler.compile(equation, variables)
+                : null;
     }
 
-
     /**
-     * The method performs secondary actions like "+" and "-"
+     * Brings equation to its canonical form
      *
-     * @param equation MUST! be after {@link #prepare(String)}
-     * For the correct solution of the equation it is necessary to perform after {@link #priorityActions(String)}
+     * @param equation before transformation
      *
-     * @return equation after secondary actions
+     * @return String without spaces and with dots instead of commas
      * null if equation == null
      *
-     * @throws NumberFormatException if there are incorrect characters in the equation
+     * @see CanonicalForm#of(String)
      */
-    private String secondaryActions(String equation){
-        if (equation != null) {
-            char[]chars = equation.toCharArray();
-
-            int index = 0;
-            int left = 0;
-            int right = chars.length;
-            Double result = null;
-            while (index < chars.length) {
-                if (chars[index] == '+' || (index > 0 && chars[index] == '-')) {
-                    left = index-1;
-                    while (true) {
-                        if (left < 0 || chars[left] == '+') {
-                            left++;
-                            break;
-                        } else if (chars[left] == '-') {
-                            if (left-1 < 0) break;
-
-                            if (chars[left - 1] != '+' && chars[left - 1] != '-') {
-                                left++;
-                            }
-                            break;
-                        } else left--;
-                    }
-                    double leftNumber = Double.parseDouble(equation.substring(left, index));
-
-                    right = index+1;
-                    while (true) {
-                        if (right == chars.length || chars[right] == '+') {
-                            break;
-                        } else if (chars[right] == '-') {
-                            if (chars[right - 1] == chars[index]) {
-                                right++;
-                            }else break;
-                        } else right++;
-                    }
-                    double rightNumber = Double.parseDouble(equation.substring(index+1, right));
-
-                    if (chars[index] == '+'){
-                        result = leftNumber + rightNumber;
-                    }else {
-                        result = leftNumber - rightNumber;
-                    }
-
-                    break;
-                } else index++;
-            }
-
-            if (result == null){
-                return equation;
-            }else {
-                String r = equation.substring(0, left) + result + equation.substring(right);
-                return secondaryActions(r);
-            }
-        } else return null;
+    static String prepare(String equation){
+        return CanonicalForm.of(equation);
     }
 }
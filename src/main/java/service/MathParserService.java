@@ -48,4 +48,33 @@ public interface MathParserService {
      * @see MathParser#equationIsCorrect(String)
      */
     String calculate(String equation);
+
+    /**
+     * Parses equation once to evaluate it many times
+     *
+     * @param equation to compile
+     *
+     * @return compiled equation
+     * null if equation == null or if equation has incorrect characters
+     *
+     * @see MathParser#compile(String)
+     * @see CompiledExpression#evaluate()
+     * @see #equationIsCorrect(String)
+     */
+    CompiledExpression compile(String equation);
+
+    /**
+     * Parses equation with variables once to evaluate it many times with different values of variables
+     * Names of variables can contain letters, digits and '_' and can't start from digit
+     *
+     * @param equation to compile
+     * @param variables names of variables in order of values for {@link CompiledExpression#evaluate(double[])}
+     *
+     * @return compiled equation
+     * null if equation == null, if equation has incorrect characters or unknown variables
+     *
+     * @see MathParser#compile(String, String...)
+     * @see CompiledExpression#evaluate(double[])
+     */
+    CompiledExpression compile(String equation, String ... variables);
 }
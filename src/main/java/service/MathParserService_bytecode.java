@@ -0,0 +1,166 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link MathParserService} that compiles hot equations to bytecode
+ * Equations are parsed by {@link MathParser}, {@link CompiledExpression} counts evaluations
+ * and after {@link #threshold} evaluations equation is compiled to hidden class by {@link BytecodeCompiler}
+ *
+ * @see BytecodeCompiler
+ */
+public class MathParserService_bytecode implements MathParserService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MathParserService_bytecode.class);
+
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final MathParser parser = new MathParser();
+
+    /**
+     * Number of evaluations of compiled equation after which it will be compiled to bytecode
+     */
+    private final int threshold;
+
+    public MathParserService_bytecode(){
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold number of evaluations of compiled equation after which it will be compiled to bytecode
+     * 0 to compile to bytecode immediately
+     */
+    public MathParserService_bytecode(int threshold){
+        this.threshold = Math.max(threshold, 0);
+    }
+
+    /**
+     * @see MathParser#numberOfNumbers(String)
+     */
+    @Override
+    public int numberOfNumbers(String equation) {
+        return parser.numberOfNumbers(equation);
+    }
+
+    /**
+     * @see MathParser#equationIsCorrect(String)
+     */
+    @Override
+    public boolean equationIsCorrect(String equation) {
+        return parser.equationIsCorrect(equation);
+    }
+
+    /**
+     * Equation that calculated once isn't compiled to bytecode
+     *
+     * @see MathParser#calculate(String)
+     */
+    @Override
+    public String calculate(String equation) {
+        return parser.calculate(equation);
+    }
+
+    /**
+     * @return compiled equation that will be compiled to bytecode after {@link #threshold} evaluations
+     * null if equation == null or if equation has incorrect characters
+     *
+     * @see MathParser#compile(String)
+     */
+    @Override
+    public CompiledExpression compile(String equation) {
+        return hot(parser.compile(equation));
+    }
+
+    /**
+     * @return compiled equation that will be compiled to bytecode after {@link #threshold} evaluations
+     * null if equation == null, if equation has incorrect characters or unknown variables
+     *
+     * @see MathParser#compile(String, String...)
+     */
+    @Override
+    public CompiledExpression compile(String equation, String... variables) {
+        return hot(parser.compile(equation, variables));
+    }
+
+    private CompiledExpression hot(CompiledExpression expression){
+        if (expression instanceof Expression e) {
+            HotExpression hot = new HotExpression(e, threshold);
+            if (threshold == 0) hot.compileToBytecode();
+            return hot;
+        } else return expression;
+    }
+
+    /**
+     * Compiled equation that counts evaluations and compiles itself to bytecode
+     * Evaluations are counted without synchronization, so count is approximate
+     */
+    private static final class HotExpression implements CompiledExpression {
+        private static final double[] NO_VALUES = new double[0];
+
+        private final Expression expression;
+        private final int threshold;
+        private final int variablesCount;
+
+        private int evaluations = 0;
+        private boolean compiled = false;
+        private volatile Evaluator evaluator;
+
+        HotExpression(Expression expression, int threshold){
+            this.expression = expression;
+            this.threshold = threshold;
+            this.variablesCount = expression.getVariables().length;
+        }
+
+        @Override
+        public String getEquation() {
+            return expression.getEquation();
+        }
+
+        @Override
+        public String[] getVariables() {
+            return expression.getVariables();
+        }
+
+        @Override
+        public int numberOfNumbers() {
+            return expression.numberOfNumbers();
+        }
+
+        @Override
+        public double evaluate() {
+            return evaluate(NO_VALUES);
+        }
+
+        @Override
+        public double evaluate(double[] values) {
+            Evaluator evaluator = this.evaluator;
+            if (evaluator != null) {
+                if (values.length < variablesCount) {
+                    throw new IllegalArgumentException("Expected " + variablesCount + " values of variables, but was " + values.length);
+                }
+                return evaluator.evaluate(values);
+            }
+
+            if (!compiled && ++evaluations >= threshold) compileToBytecode();
+            return expression.evaluate(values);
+        }
+
+        /**
+         * Columns are evaluated operation by operation, so bytecode doesn't help here
+         *
+         * @see Expression#evaluate(double[][])
+         */
+        @Override
+        public double[] evaluate(double[][] columns) {
+            return expression.evaluate(columns);
+        }
+
+        private synchronized void compileToBytecode(){
+            if (compiled) return;
+            compiled = true;
+
+            evaluator = BytecodeCompiler.compile(expression);
+            LOGGER.debug("Equation {} was compiled to bytecode: {}", expression.getEquation(), evaluator != null);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link MathParserService} that memoizes results of other {@link MathParserService}
+ * Key of cache is equation after {@link MathParser#prepare(String)}, so "1,5 + 2" and "1.5+2" share one entry
+ * Cache is split into segments with own lock and LRU order, so threads rarely wait each other
+ *
+ * @see #getHits()
+ * @see #getMisses()
+ * @see #getEvictions()
+ */
+public class MathParserService_cache implements MathParserService {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final int SEGMENTS = 16;
+
+    private final MathParserService parser;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MathParserService_cache(){
+        this(new MathParser(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param parser that calculates equations that aren't in cache
+     * @param capacity maximum number of equations in cache
+     */
+    public MathParserService_cache(MathParserService parser, int capacity){
+        this.parser = parser;
+        int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int index = 0; index < SEGMENTS; index++) {
+            segments[index] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * @return number of numbers in equation from cache or from {@link #parser}
+     * 0 if equation == null or equation has incorrect characters
+     */
+    @Override
+    public int numberOfNumbers(String equation) {
+        Entry entry = entry(equation);
+        return entry == null || entry.expression == null ? 0 : entry.expression.numberOfNumbers();
+    }
+
+    /**
+     * @return true if equation can be calculated by {@link #calculate(String)}
+     */
+    @Override
+    public boolean equationIsCorrect(String equation) {
+        Entry entry = entry(equation);
+        return entry != null && entry.expression != null;
+    }
+
+    /**
+     * @return result of equation from cache or from {@link #parser}
+     * null if equation == null or if equation has incorrect characters
+     */
+    @Override
+    public String calculate(String equation) {
+        Entry entry = entry(equation);
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * @return compiled equation from cache or from {@link #parser}
+     * null if equation == null or if equation has incorrect characters
+     */
+    @Override
+    public CompiledExpression compile(String equation) {
+        Entry entry = entry(equation);
+        return entry == null ? null : entry.expression;
+    }
+
+    /**
+     * Equations with variables aren't cached
+     *
+     * @see MathParserService#compile(String, String...)
+     */
+    @Override
+    public CompiledExpression compile(String equation, String... variables) {
+        return parser.compile(equation, variables);
+    }
+
+    /**
+     * @return number of requests that were answered from cache
+     */
+    public long getHits(){
+        return hits.sum();
+    }
+
+    /**
+     * @return number of requests that were calculated by {@link #parser}
+     */
+    public long getMisses(){
+        return misses.sum();
+    }
+
+    /**
+     * @return number of equations that were removed from cache because it was full
+     */
+    public long getEvictions(){
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of equations in cache
+     */
+    public int size(){
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all equations from cache
+     */
+    public void clear(){
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return entry of cache for equation, equation is calculated if it isn't in cache
+     * null if equation == null
+     */
+    private Entry entry(String equation){
+        if (equation == null) return null;
+
+        String key = MathParser.prepare(equation);
+        Segment segment = segment(key);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry != null) {
+            hits.increment();
+            return entry;
+        }
+
+        misses.increment();
+        CompiledExpression expression = parser.compile(key);
+        entry = new Entry(expression, expression == null ? null : String.valueOf(expression.evaluate()));
+        synchronized (segment) {
+            Entry previous = segment.putIfAbsent(key, entry);
+            return previous == null ? entry : previous;
+        }
+    }
+
+    private Segment segment(String key){
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record Entry(CompiledExpression expression, String result){}
+
+    /**
+     * Part of cache with LRU order, MUST! be used only under own lock
+     */
+    private final class Segment extends LinkedHashMap<String, Entry> {
+        private final int capacity;
+
+        Segment(int capacity){
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            } else return false;
+        }
+    }
+}
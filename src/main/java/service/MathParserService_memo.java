@@ -0,0 +1,240 @@
+package service;
+
+import model.CanonicalForm;
+import model.Equation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@link MathParserService} that looks up results of equations in DB before calculation
+ * DB is persistent memo keyed by canonical form ({@link EquationService#find(String)}),
+ * so equation that was saved in one session isn't parsed again in other session
+ * {@link BloomFilter} of canonical hashes of DB is checked before every lookup, so new equations don't send requests to DB
+ * Filter is built from {@link EquationService#canonicalHashes()} in background, until it is built every calculation sends request to DB
+ * Results of calculated equations are written back through {@link AsyncEquationService#addOrGet(Equation)}, so they are written once,
+ * {@link AsyncEquationService_writeBehind} writes them in groups by one transaction
+ * If results aren't written back, equations are saved by others, so filter learns added and changed equations
+ * from events of service
+ * Results from DB are returned without parsing, because DB keeps only results of current parser:
+ * results that were saved by older parser or not by repository are repaired when DB is opened
+ * (see version of DB in {@link repository.EquationRepository_sql})
+ *
+ * @see #getHits()
+ * @see #getMisses()
+ * @see #getSkippedLookups()
+ * @see MathParserService_cache for memo in memory
+ */
+public class MathParserService_memo implements MathParserService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MathParserService_memo.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1 << 16;
+
+    private final MathParserService parser;
+    private final EquationService service;
+
+    /**
+     * null if calculated results aren't written to DB
+     */
+    private final AsyncEquationService writeBack;
+    private final Executor executor;
+
+    /**
+     * null if filter wasn't built yet
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * Hashes that are added while filter is being built, they are added to new filter before it is used
+     * null if filter isn't being built, MUST! be used only under lock of this
+     */
+    private ArrayList<Long> pending;
+
+    /**
+     * Building of filter, MUST! be used only under lock of this
+     */
+    private CompletableFuture<Void> building;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder skippedLookups = new LongAdder();
+
+    /**
+     * @param parser that calculates equations that aren't in DB
+     * @param service with equations for lookups and for building of filter
+     * @param writeBack service to write calculated results
+     * null if calculated results aren't written to DB (for example equations are saved by user)
+     */
+    public MathParserService_memo(MathParserService parser, EquationService service, AsyncEquationService writeBack){
+        this(parser, service, writeBack, BackgroundExecutor.INSTANCE);
+    }
+
+    /**
+     * @param parser that calculates equations that aren't in DB
+     * @param service with equations for lookups and for building of filter
+     * @param writeBack service to write calculated results
+     * null if calculated results aren't written to DB
+     * @param executor for building of filter
+     */
+    public MathParserService_memo(MathParserService parser, EquationService service, AsyncEquationService writeBack, Executor executor){
+        this.parser = parser;
+        this.service = service;
+        this.writeBack = writeBack;
+        this.executor = executor;
+        if (writeBack == null) service.addEquationListener(equationsChanged);
+        rebuild();
+    }
+
+    @Override
+    public int numberOfNumbers(String equation) {
+        return parser.numberOfNumbers(equation);
+    }
+
+    @Override
+    public boolean equationIsCorrect(String equation) {
+        return parser.equationIsCorrect(equation);
+    }
+
+    /**
+     * @return result of equation from DB or from {@link #parser}
+     * null if equation == null or if equation has incorrect characters
+     */
+    @Override
+    public String calculate(String equation) {
+        if (equation == null) return null;
+
+        long hash = CanonicalForm.hash(CanonicalForm.of(equation));
+        BloomFilter filter = this.filter;
+        if (filter == null || filter.mightContain(hash)) {
+            Equation stored = service.find(equation);
+            if (stored != null) {
+                hits.increment();
+                return String.valueOf(stored.getResult());
+            }
+        } else skippedLookups.increment();
+
+        misses.increment();
+        String result = parser.calculate(equation);
+        if (result != null) remember(equation, hash, Double.parseDouble(result));
+        return result;
+    }
+
+    @Override
+    public CompiledExpression compile(String equation) {
+        return parser.compile(equation);
+    }
+
+    @Override
+    public CompiledExpression compile(String equation, String... variables) {
+        return parser.compile(equation, variables);
+    }
+
+    /**
+     * Builds new filter from hashes of DB in background, old filter is used until new filter is built
+     * Filter is rebuilt automatically when it gets more hashes than its capacity
+     *
+     * @return building of filter, it is completed when new filter is used
+     */
+    public synchronized CompletableFuture<Void> rebuild(){
+        if (building != null && !building.isDone()) return building;
+
+        pending = new ArrayList<>();
+        building = CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            long[] hashes = service.canonicalHashes();
+            BloomFilter built = new BloomFilter(Math.max(hashes.length * 2, MIN_CAPACITY), FALSE_POSITIVE_RATE);
+            for (long hash : hashes) built.add(hash);
+            synchronized (this) {
+                for (long hash : pending) built.add(hash);
+                pending = null;
+                filter = built;
+            }
+            LOGGER.info("Filter of memo was built with {} equations in {} ms", hashes.length, (System.nanoTime() - start) / 1_000_000);
+        }, executor).exceptionally(ex -> {
+            synchronized (this) {
+                pending = null;
+            }
+            LOGGER.error("Exception was thrown:", ex);
+            return null;
+        });
+        return building;
+    }
+
+    /**
+     * Adds hashes of added and changed equations to filter in background
+     * Hashes of removed equations stay in filter, they cost only lookup that doesn't find equation
+     */
+    private final EquationListener equationsChanged = new EquationListener() {
+        @Override
+        public void equationsChanged(EquationEvent event) {
+            if (event.getType() == EquationEvent.Type.REMOVED) return;
+
+            int[] ids = event.getIds();
+            executor.execute(() -> {
+                for (int id : ids) {
+                    Equation equation = service.get(id);
+                    if (equation != null) addHash(CanonicalForm.hash(CanonicalForm.of(equation.getEquation())));
+                }
+            });
+        }
+    };
+
+    /**
+     * @return number of calculations that were answered from DB
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of calculations that were answered by {@link #parser}
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of misses that didn't send request to DB because filter hasn't equation
+     */
+    public long getSkippedLookups() {
+        return skippedLookups.sum();
+    }
+
+    /**
+     * Writes result to DB and adds hash of calculated equation to filter
+     * Results that aren't finite numbers aren't written, DB can't keep them
+     * Nothing is changed if results aren't written back, filter MUST! have only hashes of equations from DB
+     */
+    private void remember(String equation, long hash, double result){
+        if (writeBack == null || !Double.isFinite(result)) return;
+
+        addHash(hash);
+        Equation calculated = new Equation();
+        calculated.setEquation(equation);
+        calculated.setResult(result);
+        writeBack.addOrGet(calculated).exceptionally(ex -> {
+            LOGGER.error("Exception was thrown:", ex);
+            return null;
+        });
+    }
+
+    /**
+     * Adds hash to current filter and to hashes of filter that is being built
+     */
+    private void addHash(long hash){
+        BloomFilter filter;
+        synchronized (this) {
+            if (pending != null) pending.add(hash);
+            filter = this.filter;
+        }
+        if (filter != null) {
+            filter.add(hash);
+            if (filter.isFull()) rebuild();
+        }
+    }
+}
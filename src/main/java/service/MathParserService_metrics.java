@@ -0,0 +1,98 @@
+package service;
+
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+
+/**
+ * Implementation of {@link MathParserService} that records counts, errors and latencies of other {@link MathParserService}
+ * Operations: parser.calculate, parser.validate, parser.numberOfNumbers, parser.compile
+ * Error is thrown exception or result null (for calculate and compile)
+ *
+ * @see MetricsRegistry
+ */
+public class MathParserService_metrics implements MathParserService {
+    private final MathParserService parser;
+
+    private final OperationMetrics calculate;
+    private final OperationMetrics validate;
+    private final OperationMetrics numberOfNumbers;
+    private final OperationMetrics compile;
+
+    public MathParserService_metrics(MathParserService parser){
+        this(parser, MetricsRegistry.DEFAULT);
+    }
+
+    /**
+     * @param parser whose calls are recorded
+     * @param registry to record
+     */
+    public MathParserService_metrics(MathParserService parser, MetricsRegistry registry){
+        this.parser = parser;
+        this.calculate = registry.operation("parser.calculate");
+        this.validate = registry.operation("parser.validate");
+        this.numberOfNumbers = registry.operation("parser.numberOfNumbers");
+        this.compile = registry.operation("parser.compile");
+    }
+
+    @Override
+    public int numberOfNumbers(String equation) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            int result = parser.numberOfNumbers(equation);
+            error = false;
+            return result;
+        } finally {
+            numberOfNumbers.record(start, error);
+        }
+    }
+
+    @Override
+    public boolean equationIsCorrect(String equation) {
+        long start = OperationMetrics.start();
+        boolean error = true;
+        try {
+            boolean result = parser.equationIsCorrect(equation);
+            error = false;
+            return result;
+        } finally {
+            validate.record(start, error);
+        }
+    }
+
+    @Override
+    public String calculate(String equation) {
+        long start = OperationMetrics.start();
+        String result = null;
+        try {
+            result = parser.calculate(equation);
+            return result;
+        } finally {
+            calculate.record(start, result == null);
+        }
+    }
+
+    @Override
+    public CompiledExpression compile(String equation) {
+        long start = OperationMetrics.start();
+        CompiledExpression result = null;
+        try {
+            result = parser.compile(equation);
+            return result;
+        } finally {
+            compile.record(start, result == null);
+        }
+    }
+
+    @Override
+    public CompiledExpression compile(String equation, String... variables) {
+        long start = OperationMetrics.start();
+        CompiledExpression result = null;
+        try {
+            result = parser.compile(equation, variables);
+            return result;
+        } finally {
+            compile.record(start, result == null);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package service;
+
+import model.Equation;
+import model.EquationTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * In-memory index of equations sorted by results
+ * Keeps results, ids and rows of texts in parallel primitive arrays sorted by result (and by id for equal results),
+ * so search by condition is two binary searches and copy of found range
+ * Texts of equations are kept in columnar {@link EquationTable} that only grows,
+ * texts of changed and removed equations are dropped when table is compacted
+ * Results are also kept by ids in {@link ResultsById}, so position of equation is found by binary search of its result
+ * and change or remove costs only shift of arrays
+ * Isn't thread safe
+ *
+ * @see EquationService_indexed
+ */
+final class ResultIndex {
+    private double[] results;
+    private int[] ids;
+
+    /**
+     * Rows of {@link #texts} by positions of index
+     */
+    private int[] rows;
+    private int size;
+
+    private EquationTable texts;
+
+    private final ResultsById resultsById;
+
+    /**
+     * Number of rows of {@link #texts} that aren't used by index
+     */
+    private int garbage = 0;
+
+    /**
+     * @param table of all equations
+     */
+    ResultIndex(EquationTable table){
+        size = table.size();
+        texts = table;
+        results = new double[Math.max(size, 16)];
+        ids = new int[results.length];
+        rows = new int[results.length];
+
+        int[] order = new int[size];
+        for (int row = 0; row < size; row++) order[row] = row;
+        sort(order, table);
+
+        resultsById = new ResultsById(size);
+        for (int index = 0; index < size; index++) {
+            int row = order[index];
+            results[index] = table.getResult(row);
+            ids[index] = table.getId(row);
+            rows[index] = row;
+            resultsById.put(ids[index], results[index]);
+        }
+    }
+
+    int size(){
+        return size;
+    }
+
+    /**
+     * Adds equation or replaces equation with the same id
+     *
+     * @param equation to add
+     */
+    void put(Equation equation){
+        remove(equation.getId());
+
+        if (size == results.length) {
+            int capacity = size + (size >> 1);
+            results = Arrays.copyOf(results, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+
+        double result = equation.getResult();
+        int from = lowerBound(result);
+        int to = upperBound(result);
+        int position = Arrays.binarySearch(ids, from, to, equation.getId());
+        if (position < 0) position = -position - 1;
+
+        System.arraycopy(results, position, results, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        results[position] = result;
+        ids[position] = equation.getId();
+        rows[position] = texts.size();
+        texts.add(equation);
+        resultsById.put(equation.getId(), result);
+        size++;
+    }
+
+    /**
+     * @param id of equation to remove
+     *
+     * @return true if index had equation with this id
+     */
+    boolean remove(int id){
+        int slot = resultsById.find(id);
+        if (slot < 0) return false;
+
+        double result = resultsById.value(slot);
+        resultsById.remove(slot);
+        int index = Arrays.binarySearch(ids, lowerBound(result), upperBound(result), id);
+        if (index < 0) index = indexOf(id);
+
+        System.arraycopy(results, index + 1, results, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        size--;
+        if (++garbage > Math.max(size, 1024)) compact();
+        return true;
+    }
+
+    /**
+     * Linear search for results that aren't ordered by comparison (NaN)
+     */
+    private int indexOf(int id){
+        for (int index = 0; index < size; index++) {
+            if (ids[index] == id) return index;
+        }
+        throw new IllegalStateException("Index hasn't equation with id " + id);
+    }
+
+    /**
+     * @param condition of search (<, <=, =, >=, >)
+     * @param result number for compare by condition of search with equations results
+     *
+     * @return equations that match the search terms sorted by ids (as search in DB)
+     * empty list if condition == null or condition has incorrect characters
+     */
+    ArrayList<Equation> get(String condition, double result){
+        if (condition == null || Double.isNaN(result)) return new ArrayList<>();
+
+        return switch (condition) {
+            case "<" -> range(0, lowerBound(result));
+            case "<=" -> range(0, upperBound(result));
+            case "=" -> range(lowerBound(result), upperBound(result));
+            case ">=" -> range(lowerBound(result), size);
+            case ">" -> range(upperBound(result), size);
+            default -> new ArrayList<>();
+        };
+    }
+
+    /**
+     * @param from minimal result (inclusive)
+     * @param to maximal result (inclusive)
+     *
+     * @return equations with results from range sorted by ids
+     * empty list if from > to or if from or to is NaN
+     */
+    ArrayList<Equation> between(double from, double to){
+        if (Double.isNaN(from) || Double.isNaN(to) || from > to) return new ArrayList<>();
+
+        return range(lowerBound(from), upperBound(to));
+    }
+
+    /**
+     * @return equations of positions from (inclusive) to (exclusive) sorted by ids
+     */
+    private ArrayList<Equation> range(int from, int to){
+        ArrayList<Equation> equations = new ArrayList<>(Math.max(to - from, 0));
+        if (from >= to) return equations;
+
+        long[] order = new long[to - from];
+        for (int index = from; index < to; index++) {
+            order[index - from] = ((long) ids[index] << 32) | (index & 0xFFFFFFFFL);
+        }
+        Arrays.sort(order);
+
+        for (long key : order) {
+            int index = (int) key;
+            Equation equation = new Equation();
+            equation.setId(ids[index]);
+            equation.setEquation(texts.getEquation(rows[index]));
+            equation.setResult(results[index]);
+            equations.add(equation);
+        }
+        return equations;
+    }
+
+    /**
+     * @return first position with result >= value
+     */
+    private int lowerBound(double value){
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (results[middle] < value) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return first position with result > value
+     */
+    private int upperBound(double value){
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (results[middle] <= value) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Copies texts that are used by index to new table in order of index
+     */
+    private void compact(){
+        EquationTable compacted = new EquationTable(size);
+        for (int index = 0; index < size; index++) {
+            compacted.add(ids[index], texts.getEquation(rows[index]), results[index]);
+            rows[index] = index;
+        }
+        texts = compacted;
+        garbage = 0;
+    }
+
+    /**
+     * Stable merge sort of rows of table by results, rows of table are in order of ids,
+     * so rows with equal results stay in order of ids
+     */
+    private static void sort(int[] order, EquationTable table){
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int left = 0; left < order.length; left += width << 1) {
+                int middle = Math.min(left + width, order.length);
+                int right = Math.min(left + (width << 1), order.length);
+                int i = left, j = middle, k = left;
+                while (i < middle && j < right) {
+                    buffer[k++] = table.getResult(order[j]) < table.getResult(order[i]) ? order[j++] : order[i++];
+                }
+                while (i < middle) buffer[k++] = order[i++];
+                while (j < right) buffer[k++] = order[j++];
+            }
+            System.arraycopy(buffer, 0, order, 0, order.length);
+        }
+    }
+
+    /**
+     * Hash map of ids to results with open addressing in primitive arrays,
+     * so map of millions of equations doesn't create objects for them
+     */
+    private static final class ResultsById {
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private double[] values;
+        private int size = 0;
+
+        ResultsById(int capacity){
+            int length = Integer.highestOneBit(Math.max(capacity * 2, 16) - 1) << 1;
+            keys = new int[length];
+            values = new double[length];
+            Arrays.fill(keys, FREE);
+        }
+
+        /**
+         * @return slot of id
+         * -1 if map hasn't this id
+         */
+        int find(int id){
+            int mask = keys.length - 1;
+            for (int slot = slot(id, mask); keys[slot] != FREE; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) return slot;
+            }
+            return -1;
+        }
+
+        double value(int slot){
+            return values[slot];
+        }
+
+        void put(int id, double result){
+            if ((size + 1) * 2 > keys.length) grow();
+
+            int mask = keys.length - 1;
+            int slot = slot(id, mask);
+            while (keys[slot] != FREE && keys[slot] != id) slot = (slot + 1) & mask;
+            if (keys[slot] == FREE) size++;
+            keys[slot] = id;
+            values[slot] = result;
+        }
+
+        /**
+         * Removes id from slot and moves following ids of the same cluster back, so search doesn't need marks of removed ids
+         */
+        void remove(int slot){
+            int mask = keys.length - 1;
+            int free = slot;
+            for (int next = (free + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+                int home = slot(keys[next], mask);
+                if (((next - home) & mask) >= ((next - free) & mask)) {
+                    keys[free] = keys[next];
+                    values[free] = values[next];
+                    free = next;
+                }
+            }
+            keys[free] = FREE;
+            size--;
+        }
+
+        private void grow(){
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new double[keys.length];
+            Arrays.fill(keys, FREE);
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != FREE) put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+
+        private static int slot(int id, int mask){
+            int hash = id * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
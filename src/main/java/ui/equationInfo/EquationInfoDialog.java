@@ -3,7 +3,7 @@ package ui.equationInfo;
 import model.Equation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import service.MathParser;
+import service.BackgroundExecutor;
 import service.MathParserService;
 import ui.Location;
 import ui.mainScreen.MainScreen;
@@ -16,6 +16,7 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Dialog to put information about new equation or changing information about old one
@@ -35,12 +36,13 @@ public class EquationInfoDialog extends JDialog {
     private static final String CALCULATE = "Calculate";
     private static final String OOPS = "Oops!";
     private static final String CHANGE = "Change";
+    private static final String ERROR_MESSAGE = "Something go wrong! Please try again.";
 
     private static final String CALCULATE_TOOLTIP = "Calculates equation result";
     private static final String ADD_TOOLTIP = "Before add/change you must calculate equation";
     private static final String EQUATION_TOOLTIP = "Use numbers and symbols + - * / ( )";
 
-    private final MathParserService mathParser = new MathParser();
+    private final MathParserService mathParser;
 
     private final MainScreen mainScreen;
     private final Equation equation;
@@ -51,6 +53,7 @@ public class EquationInfoDialog extends JDialog {
     public EquationInfoDialog(MainScreen mainScreen, Equation equation){
         super(mainScreen, TITLE, true);
         this.mainScreen = mainScreen;
+        this.mathParser = mainScreen.getParser();
         this.equation = equation;
 
         createElements();
@@ -130,6 +133,12 @@ public class EquationInfoDialog extends JDialog {
 
     private final ActionListener clickCancel = e -> dispose();
 
+    /**
+     * Equation is parsed and calculated in background, so long equation doesn't freeze UI
+     * Result is ignored if text of equation was changed while it was calculating
+     *
+     * @see BackgroundExecutor
+     */
     private final ActionListener clickCalculate = e -> {
         LOGGER.info("btn_calculate was clicked");
 
@@ -143,23 +152,37 @@ public class EquationInfoDialog extends JDialog {
             LOGGER.info(message);
 
             JOptionPane.showMessageDialog(EquationInfoDialog.this,message,OOPS,JOptionPane.ERROR_MESSAGE);
-        }else if (!mathParser.equationIsCorrect(equation)){
-            String message = "Check attentively equation for incorrect actions or symbols, missing or redundant symbols and parentheses";
-
-            LOGGER.info(message);
-
-            JOptionPane.showMessageDialog(EquationInfoDialog.this,message,OOPS,JOptionPane.ERROR_MESSAGE);
-        }else {
-            String result = mathParser.calculate(equation);
-            txt_result.setText(result);
-            btn_add.setEnabled(true);
-
-            LOGGER.info("""
-                    Equation = {}
-                    Result = {}
-                    Quantity of numbers = {}""",
-                    equation, result, mathParser.numberOfNumbers(equation));
+            return;
         }
+
+        btn_calculate.setEnabled(false);
+        EquationInfoDialog.this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        CompletableFuture.supplyAsync(() -> EquationInfoDialog.this.mathParser.calculate(equation), BackgroundExecutor.INSTANCE)
+                .whenCompleteAsync((result, ex) -> {
+                    btn_calculate.setEnabled(true);
+                    EquationInfoDialog.this.setCursor(Cursor.getDefaultCursor());
+                    if (!equation.equals(txt_equation.getText())) return;
+
+                    if (ex != null){
+                        LOGGER.error("Exception was thrown:", ex);
+
+                        JOptionPane.showMessageDialog(EquationInfoDialog.this,ERROR_MESSAGE,OOPS,JOptionPane.ERROR_MESSAGE);
+                    }else if (result == null){
+                        String message = "Check attentively equation for incorrect actions or symbols, missing or redundant symbols and parentheses";
+
+                        LOGGER.info(message);
+
+                        JOptionPane.showMessageDialog(EquationInfoDialog.this,message,OOPS,JOptionPane.ERROR_MESSAGE);
+                    }else {
+                        txt_result.setText(result);
+                        btn_add.setEnabled(true);
+
+                        LOGGER.info("""
+                                Equation = {}
+                                Result = {}""",
+                                equation, result);
+                    }
+                }, SwingUtilities::invokeLater);
     };
 
     private final ActionListener clickAdd = new ActionListener() {
@@ -22,16 +22,18 @@ public class EquationSearchDialog extends JDialog {
 
     private static final String SEARCH = "Search";
     private static final String EQUATION_RESULT = "Equation result";
+    private static final String EQUATION_TEXT = "Equation contains";
     private static final String CANCEL = "Cancel";
     private static final String OOPS = "Oops!";
 
     private static final String TOOLTIP_NUMBER = "Use only decimals and natural numbers";
+    private static final String TOOLTIP_TEXT = "Part of equation, for example *3.14 (search by result is ignored)";
 
     private final MainScreen mainScreen;
 
-    private JLabel lab_result;
+    private JLabel lab_result, lab_text;
     private JComboBox<String>comboBox_condition;
-    private JTextField txt_number;
+    private JTextField txt_number, txt_text;
     private JButton btn_cancel, btn_search;
 
     public EquationSearchDialog(MainScreen mainScreen){
@@ -62,6 +64,10 @@ public class EquationSearchDialog extends JDialog {
         txt_number = new JTextField(10);
         txt_number.setToolTipText(TOOLTIP_NUMBER);
 
+        lab_text = new JLabel(EQUATION_TEXT);
+        txt_text = new JTextField(15);
+        txt_text.setToolTipText(TOOLTIP_TEXT);
+
         btn_cancel = new DefaultButton(CANCEL);
         btn_search = new DefaultButton(SEARCH);
     }
@@ -70,7 +76,7 @@ public class EquationSearchDialog extends JDialog {
      * Sets up the size, location, appearance and content of dialog
      */
     private void build(){
-        this.setSize(400, 200);
+        this.setSize(400, 240);
         this.setLocation(Location.CENTER(mainScreen, this));
 
         this.setContentPane(new MainPanel());
@@ -105,7 +111,10 @@ public class EquationSearchDialog extends JDialog {
         public void actionPerformed(ActionEvent e) {
             LOGGER.debug("btn_search was clicked");
 
-            if (txt_number.getText().length() == 0) {
+            if (!txt_text.getText().isBlank()) {
+                dispose();
+                mainScreen.searchText(txt_text.getText().strip());
+            } else if (txt_number.getText().length() == 0) {
                 String message = "Field of result can't be empty!";
 
                 LOGGER.info(message);
@@ -146,12 +155,17 @@ public class EquationSearchDialog extends JDialog {
             conditionPanel.add(comboBox_condition);
             conditionPanel.add(txt_number);
 
+            JPanel textPanel = new JPanel();
+            textPanel.add(lab_text);
+            textPanel.add(txt_text);
+
             JPanel buttonsPanel = new JPanel();
             buttonsPanel.add(btn_cancel);
             buttonsPanel.add(btn_search);
 
             this.add(conditionPanel, new Cell(0));
-            this.add(buttonsPanel, new Cell(1));
+            this.add(textPanel, new Cell(1));
+            this.add(buttonsPanel, new Cell(2));
         }
 
         private class Cell extends GridBagConstraints {
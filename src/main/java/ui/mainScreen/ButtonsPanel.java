@@ -76,6 +76,16 @@ public class ButtonsPanel extends JPanel {
         btn_remove.setEnabled(enabled);
     }
 
+    /**
+     * @param available false if DB isn't opened yet, all buttons are disabled
+     * true if DB was opened, buttons of add and search are enabled
+     */
+    public void setAvailable(boolean available){
+        btn_add.setEnabled(available);
+        btn_search.setEnabled(available);
+        if (!available) setEnabled(false);
+    }
+
     private final ActionListener clickAdd = e -> EventQueue.invokeLater(new Runnable() {
         @Override
         public void run() {
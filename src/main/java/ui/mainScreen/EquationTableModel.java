@@ -0,0 +1,348 @@
+package ui.mainScreen;
+
+import model.Equation;
+import model.EquationTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.BackgroundExecutor;
+import service.EquationEvent;
+import service.EquationListener;
+import service.EquationService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Model of {@link MainTable}
+ * Model keeps only ids of rows, equations are read from {@link EquationService} by pages when table shows them
+ * and only last {@link #MAX_PAGES} pages stay in memory
+ * Pages are columnar {@link EquationTable}, so table reads cells from arrays without objects of equations,
+ * texts are decoded and results are formatted only when table draws their cells
+ * Pages are read in background, rows of page that isn't loaded yet show {@link #LOADING}
+ * and they are updated when page is loaded, so drawing of table doesn't wait for DB
+ *
+ * @see MainTable
+ * @see EquationService#ids()
+ * @see EquationService#table(int, int)
+ */
+public class EquationTableModel extends AbstractTableModel {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EquationTableModel.class);
+
+    private static final String EQUATION = "Equation";
+    private static final String RESULT = "Result";
+    private static final String[] COLUMNS = new String[]{EQUATION, RESULT};
+
+    /**
+     * Value of cells whose page isn't loaded yet
+     */
+    static final String LOADING = "...";
+
+    /**
+     * Number of equations that read from service at once
+     */
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * Maximum number of pages in memory
+     */
+    static final int MAX_PAGES = 16;
+
+    /**
+     * Service to read pages of equations
+     * null if all equations of model are in {@link #all}
+     */
+    private final EquationService service;
+
+    /**
+     * Ids of equations by rows of table in ascending order
+     * only first {@link #size} ids are used
+     */
+    private int[] ids;
+    private int size;
+
+    /**
+     * All equations of model by rows
+     * null if equations are read from {@link #service}
+     */
+    private final EquationTable all;
+
+    /**
+     * Loaded pages by numbers in LRU order, page n has rows from n * {@link #PAGE_SIZE}
+     */
+    private final LinkedHashMap<Integer, EquationTable> pages;
+
+    /**
+     * Numbers of pages that are being read
+     */
+    private final Set<Integer> loading = new HashSet<>();
+
+    /**
+     * Number of changes of rows, pages that were requested before last change are dropped
+     */
+    private int generation = 0;
+
+    /**
+     * Executor that reads pages from {@link #service}
+     */
+    private final Executor loader;
+
+    /**
+     * Executor that applies loaded pages, MUST! run tasks in event dispatch thread as other methods of model
+     */
+    private final Executor dispatcher;
+
+    /**
+     * Model of all equations from service
+     *
+     * @param service to read equations
+     */
+    public EquationTableModel(EquationService service){
+        this(service, service.ids());
+    }
+
+    /**
+     * Model of all equations from service with ids that were already read
+     *
+     * @param service to read equations
+     * @param ids of all equations from service in ascending order
+     *
+     * @see EquationService#ids()
+     */
+    public EquationTableModel(EquationService service, int[] ids){
+        this(service, ids, BackgroundExecutor.INSTANCE, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Model of all equations from service with ids that were already read
+     *
+     * @param service to read equations
+     * @param ids of all equations from service in ascending order
+     * @param loader executor that reads pages from service
+     * @param dispatcher executor that applies loaded pages in thread of model
+     */
+    EquationTableModel(EquationService service, int[] ids, Executor loader, Executor dispatcher){
+        this.service = service;
+        this.loader = loader;
+        this.dispatcher = dispatcher;
+        this.ids = ids;
+        this.size = ids.length;
+        this.all = null;
+        this.pages = new LinkedHashMap<>(MAX_PAGES * 2, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, EquationTable> eldest) {
+                return size() > MAX_PAGES;
+            }
+        };
+
+        LOGGER.debug("TableModel was created with {} rows", size);
+    }
+
+    /**
+     * Model of equations that already are in memory (for example results of search)
+     *
+     * @param table of equations by rows
+     */
+    public EquationTableModel(EquationTable table){
+        this.service = null;
+        this.loader = null;
+        this.dispatcher = null;
+        this.all = table;
+        this.ids = table.ids();
+        this.size = ids.length;
+        this.pages = null;
+
+        LOGGER.debug("TableModel was created with {} rows", size);
+    }
+
+    /**
+     * Model of equations that already are in memory (for example results of search)
+     *
+     * @param list of equations, they are copied to {@link EquationTable}
+     */
+    public EquationTableModel(List<Equation> list){
+        this(EquationTable.of(list));
+    }
+
+    /**
+     * @param row of table
+     *
+     * @return new object of equation in this row
+     * null if row is out of table, its page isn't loaded yet (it is requested) or equation was removed from service
+     */
+    public Equation getEquation(int row){
+        EquationTable table = pageOf(row);
+        int index = indexIn(table, row);
+        return index < 0 ? null : table.get(index);
+    }
+
+    /**
+     * @param id of equation
+     *
+     * @return row of equation with this id
+     * -1 if model hasn't equation with this id
+     */
+    public int rowOf(int id){
+        if (all == null) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            return row < 0 ? -1 : row;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == id) return row;
+        }
+        return -1;
+    }
+
+    /**
+     * @return table that contains equation of row
+     * null if row is out of table or its page isn't loaded yet, page is requested from service
+     */
+    private EquationTable pageOf(int row){
+        if (row < 0 || row >= size) return null;
+        if (all != null) return all;
+
+        int page = row / PAGE_SIZE;
+        EquationTable table = pages.get(page);
+        if (table == null) {
+            requestPage(page);
+            table = pages.get(page);
+        }
+        return table;
+    }
+
+    /**
+     * @return index of equation of row in table
+     * -1 if table is null or it hasn't equation of row
+     */
+    private int indexIn(EquationTable table, int row){
+        if (table == null) return -1;
+        return table == all ? row : table.indexOf(ids[row]);
+    }
+
+    /**
+     * Reads page of equations by {@link #loader} if it isn't being read yet
+     * Ids of rows are sorted, so page starts after id of last row of previous page
+     */
+    private void requestPage(int page){
+        if (!loading.add(page)) return;
+
+        int start = page * PAGE_SIZE;
+        int afterId = start == 0 ? 0 : ids[start - 1];
+        int requested = generation;
+        LOGGER.debug("Loading page of table from row {}", start);
+
+        CompletableFuture.supplyAsync(() -> service.table(afterId, PAGE_SIZE), loader)
+                .whenCompleteAsync((table, ex) -> pageLoaded(page, requested, table, ex), dispatcher);
+    }
+
+    /**
+     * Keeps loaded page and notifies table about its rows
+     * Page is dropped if rows were changed after it was requested
+     */
+    private void pageLoaded(int page, int requested, EquationTable table, Throwable ex){
+        if (requested != generation) return;
+
+        loading.remove(page);
+        if (ex != null) {
+            LOGGER.error("Exception was thrown:", ex);
+            return;
+        }
+
+        pages.put(page, table);
+        int start = page * PAGE_SIZE;
+        int end = Math.min(start + PAGE_SIZE, size) - 1;
+        if (start <= end) fireTableRowsUpdated(start, end);
+    }
+
+    /**
+     * Applies change of equations to rows of table and notifies table only about changed rows
+     * Loaded pages are dropped, because rows of pages are moved by changes,
+     * they are read again from service when table shows them
+     * MUST! be called in event dispatch thread
+     *
+     * @param event of {@link EquationService}
+     *
+     * @return true if change was applied
+     * false if model isn't model of all equations from service (it can't read changed equations)
+     *
+     * @see EquationService#addEquationListener(EquationListener)
+     */
+    public boolean equationsChanged(EquationEvent event){
+        LOGGER.debug("TableModel received event: {}", event);
+
+        if (service == null) return false;
+
+        pages.clear();
+        loading.clear();
+        generation++;
+        for (int id : event.getIds()) {
+            switch (event.getType()) {
+                case ADDED -> added(id);
+                case UPDATED -> updated(id);
+                case REMOVED -> removed(id);
+            }
+        }
+        return true;
+    }
+
+    private void added(int id){
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) return;
+
+        row = -row - 1;
+        if (size == ids.length) ids = Arrays.copyOf(ids, Math.max(16, size + (size >> 1)));
+        System.arraycopy(ids, row, ids, row + 1, size - row);
+        ids[row] = id;
+        size++;
+        fireTableRowsInserted(row, row);
+    }
+
+    private void updated(int id){
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) return;
+
+        fireTableRowsUpdated(row, row);
+    }
+
+    private void removed(int id){
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) return;
+
+        System.arraycopy(ids, row + 1, ids, row, size - row - 1);
+        size--;
+        fireTableRowsDeleted(row, row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        EquationTable table = pageOf(row);
+        if (table == null) return row < 0 || row >= size ? null : LOADING;
+        int index = indexIn(table, row);
+        if (index < 0) return null;
+
+        return column == 0 ? table.getEquation(index) : String.format(Locale.GERMAN,"%2f", table.getResult(index));
+    }
+}
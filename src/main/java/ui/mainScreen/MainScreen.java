@@ -1,14 +1,32 @@
 package ui.mainScreen;
 
 import model.Equation;
+import metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import repository.EquationRepository_metrics;
+import repository.EquationRepository_sql;
+import service.AsyncEquationService;
+import service.AsyncEquationService_impl;
+import service.BackgroundExecutor;
+import service.EquationEvent;
+import service.EquationListener;
 import service.EquationService;
 import service.EquationService_impl;
+import service.EquationService_indexed;
+import service.MathParser;
+import service.MathParserService;
+import service.MathParserService_memo;
+import service.MathParserService_metrics;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.event.WindowListener;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Main window of UI
@@ -24,27 +42,76 @@ public class MainScreen extends JFrame {
     private static final String SEARCH = "Search";
     private static final String SEARCH_OFF = "Search off";
 
+    /**
+     * Maximum number of equations that are shown by search of text
+     */
+    private static final int TEXT_SEARCH_LIMIT = 1000;
+
     private static final String ERROR_MESSAGE = "Something go wrong! Please try again.";
+    private static final String ALREADY_SAVED = "Already saved";
 
-    private final EquationService service = new EquationService_impl();
+    /**
+     * Opening of DB in background, because it creates and migrates tables and indexes of DB
+     *
+     * @see #opened(EquationService)
+     */
+    private final CompletableFuture<EquationService> opening = CompletableFuture.supplyAsync(
+            () -> new EquationService_indexed(new EquationService_impl(new EquationRepository_metrics(new EquationRepository_sql()))),
+            BackgroundExecutor.INSTANCE);
 
-    private final ArrayList<Equation>list;
+    /**
+     * Service of equations
+     * null until DB is opened, buttons that use it are disabled until then
+     */
+    private EquationService service;
+
+    /**
+     * Runs requests to {@link #service} out of event dispatch thread
+     * null until DB is opened
+     *
+     * @see #inBackground(CompletableFuture, Consumer)
+     */
+    private AsyncEquationService asyncService;
+
+    /**
+     * Looks up results in {@link #service} before calculation, results aren't written back,
+     * because equations are saved only by user, memo learns them from events of {@link #service}
+     * null until DB is opened
+     */
+    private MathParserService parser;
 
     private final MainTable mainTable;
     public final ButtonsPanel buttonsPanel;
+    private final JProgressBar progressBar;
 
     public boolean searchOn = false;
 
+    /**
+     * Number of requests that are running in background
+     */
+    private int tasks = 0;
+
+    /**
+     * Number of last request of list, lists of older requests are ignored
+     *
+     * @see #resetList()
+     * @see #searchEquations(String, double)
+     */
+    private int listRequest = 0;
+
     public MainScreen(){
         super(TITLE);
 
-        this.list = service.getAll();
-
-        mainTable = new MainTable(this.list, this);
+        mainTable = new MainTable(new EquationTableModel(new ArrayList<>()), this);
         buttonsPanel = new ButtonsPanel(this);
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
 
         build();
         setReactions();
+        buttonsPanel.setAvailable(false);
+        inBackground(opening, this::opened);
 
         LOGGER.debug("MainScreen was created successful");
     }
@@ -72,84 +139,147 @@ public class MainScreen extends JFrame {
      */
     private void setReactions(){
         this.setDefaultCloseOperation(EXIT_ON_CLOSE);
+        this.addWindowListener(windowClosing);
+    }
+
+    /**
+     * Creates services of opened DB, enables buttons and shows list of equations
+     *
+     * @param service of opened DB
+     */
+    private void opened(EquationService service){
+        this.service = service;
+        this.asyncService = new AsyncEquationService_impl(service);
+        this.parser = new MathParserService_memo(new MathParserService_metrics(new MathParser()), service, null);
+        service.addEquationListener(equationsChanged);
+
+        buttonsPanel.setAvailable(true);
+        resetList();
+        LOGGER.debug("DB was opened");
     }
 
+    /**
+     * Applies changes of equations only to changed rows of {@link #mainTable}
+     * Results of search can't be updated by rows, so search is turned off and list is reset
+     *
+     * @see EquationTableModel#equationsChanged(EquationEvent)
+     */
+    private final EquationListener equationsChanged = new EquationListener() {
+        @Override
+        public void equationsChanged(EquationEvent event) {
+            if (!SwingUtilities.isEventDispatchThread()) {
+                SwingUtilities.invokeLater(() -> equationsChanged(event));
+                return;
+            }
+
+            EquationTableModel model = mainTable.getTableModel();
+            if (searchOn || model == null || !model.equationsChanged(event)) resetList();
+        }
+    };
+
+    private final WindowListener windowClosing = new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+            LOGGER.debug("MainScreen is closing");
+            opening.thenAccept(EquationService::close);
+            MetricsRegistry.DEFAULT.log();
+        }
+    };
+
     /**
      * Gets selected equation from {@link #mainTable}
      *
-     * @return equation from {@link #list} by index equal selected row from {@link #mainTable}
+     * @return equation from selected row of {@link #mainTable}
      * or null if row wasn't selected
      *
-     * @see MainTable
+     * @see MainTable#getSelectedEquation()
      */
     public Equation getSelectedEquation(){
-        int selected = mainTable.getSelectedRow();
-        return selected >= 0 && selected < list.size() ? list.get(selected) : null;
+        return mainTable.getSelectedEquation();
     }
 
     /**
-     * Sends the command 'add' to {@link #service} and resets list in {@link #mainTable}
-     * if @param == null or {@link EquationService#add(Equation)} returns false - show error dialog
+     * @return parser that answers equations from DB without calculation
      *
-     * @param equation to change
+     * @see MathParserService_memo
+     */
+    public MathParserService getParser(){
+        return parser;
+    }
+
+    /**
+     * Sends the command 'add' to {@link #service}, {@link #mainTable} is updated by {@link #equationsChanged}
+     * Equation isn't added if the same equation in other form was added before,
+     * then user is told about stored equation and its row is selected
+     * if @param == null or {@link EquationService#addOrGet(Equation)} returns null - show error dialog
      *
-     * @see EquationService#set(Equation)
-     * @see #resetList()
+     * @param equation to add
+     *
+     * @see EquationService#addOrGet(Equation)
+     * @see #equationsChanged
      */
     public void addEquation(Equation equation){
-        if (equation != null && service.add(equation)) {
-            resetList();
-        }else {
-            JOptionPane.showMessageDialog(this, ERROR_MESSAGE, OOPS, JOptionPane.ERROR_MESSAGE);
-        }
+        if (equation == null) {
+            showError();
+        }else inBackground(asyncService.addOrGet(equation), stored -> {
+            if (stored == null) {
+                showError();
+            } else if (stored != equation) {
+                LOGGER.info("Equation {} wasn't added, it is the same as equation {} with id = {}",
+                        equation.getEquation(), stored.getEquation(), stored.getId());
+                mainTable.selectEquation(stored.getId());
+                JOptionPane.showMessageDialog(this, sameEquationMessage(stored), ALREADY_SAVED, JOptionPane.INFORMATION_MESSAGE);
+            }
+        });
+    }
+
+    private static String sameEquationMessage(Equation stored){
+        return "The same equation is already saved: \"" + stored.getEquation() + "\" with result = " + stored.getResult();
     }
 
     /**
-     * Sends the command 'remove' to {@link #service} and resets list in {@link #mainTable}
+     * Sends the command 'remove' to {@link #service}, {@link #mainTable} is updated by {@link #equationsChanged}
      * if @param < 0 or {@link EquationService#remove(int)} returns false - show error dialog
      *
      * @param id of equation that need to remove
      *
      * @see EquationService#remove(int id)
-     * @see #resetList()
+     * @see #equationsChanged
      */
     public void removeEquation(int id){
-        if (id >= 0 && service.remove(id)) {
-            resetList();
-        }else {
-            JOptionPane.showMessageDialog(this, ERROR_MESSAGE, OOPS, JOptionPane.ERROR_MESSAGE);
-        }
+        if (id < 0) {
+            showError();
+        }else inBackground(asyncService.remove(id), this::showErrorIfFalse);
     }
 
     /**
-     * Sends the command 'set' to {@link #service} and resets list in {@link #mainTable}
+     * Sends the command 'set' to {@link #service}, {@link #mainTable} is updated by {@link #equationsChanged}
      * if @param == null or {@link EquationService#set(Equation)} returns false - show error dialog
      *
      * @param equation to change
      *
      * @see EquationService#set(Equation)
-     * @see #resetList()
+     * @see #equationsChanged
      */
     public void setEquation(Equation equation){
-        if (equation != null && service.set(equation)) {
-            resetList();
-        }else {
-            JOptionPane.showMessageDialog(this, ERROR_MESSAGE, OOPS, JOptionPane.ERROR_MESSAGE);
-        }
+        if (equation == null) {
+            showError();
+        }else inBackground(asyncService.set(equation), this::showErrorIfFalse);
     }
 
     /**
      * Makes search off and resets list in table
      *
-     * @see EquationService#getAll()
+     * @see AsyncEquationService#ids()
      * @see #searchEquations(String, double)
      */
     public void resetList(){
         searchOn = false;
         buttonsPanel.btn_search.setText(SEARCH);
-        list.clear();
-        list.addAll(service.getAll());
-        mainTable.setList(list);
+        int request = ++listRequest;
+        inBackground(asyncService.ids(), ids -> {
+            if (request == listRequest) mainTable.setTableModel(new EquationTableModel(service, ids));
+        });
     }
 
     /**
@@ -159,15 +289,72 @@ public class MainScreen extends JFrame {
      *
      * @param result for search
      *
-     * @see EquationService#get(String condition, double result)
+     * @see AsyncEquationService#get(String, double)
      * @see #resetList() ()
      */
     public void searchEquations(String condition, double result){
         searchOn = true;
         buttonsPanel.btn_search.setText(SEARCH_OFF);
-        list.clear();
-        list.addAll(service.get(condition, result));
-        mainTable.setList(list);
+        int request = ++listRequest;
+        inBackground(asyncService.get(condition, result), equations -> {
+            if (request == listRequest) mainTable.setTableModel(new EquationTableModel(equations));
+        });
+    }
+
+    /**
+     * Turns on search and show {@link #TEXT_SEARCH_LIMIT} best equations that contain text
+     *
+     * @param text that equations contain
+     *
+     * @see AsyncEquationService#search(String, int, int)
+     * @see #resetList()
+     */
+    public void searchText(String text){
+        searchOn = true;
+        buttonsPanel.btn_search.setText(SEARCH_OFF);
+        int request = ++listRequest;
+        inBackground(asyncService.search(text, 0, TEXT_SEARCH_LIMIT), equations -> {
+            if (request == listRequest) mainTable.setTableModel(new EquationTableModel(equations));
+        });
+    }
+
+    /**
+     * Shows progress while request runs in background and passes its result to event dispatch thread
+     * Error dialog is shown if request threw exception
+     *
+     * @param request that runs in background
+     *
+     * @param done action with result of request, it runs in event dispatch thread
+     *
+     * @see AsyncEquationService
+     */
+    private <T> void inBackground(CompletableFuture<T> request, Consumer<T> done){
+        if (tasks++ == 0) {
+            progressBar.setVisible(true);
+            this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+
+        request.whenCompleteAsync((result, ex) -> {
+            if (--tasks == 0) {
+                progressBar.setVisible(false);
+                this.setCursor(Cursor.getDefaultCursor());
+            }
+
+            if (ex == null) {
+                done.accept(result);
+            }else {
+                LOGGER.error("Exception was thrown:", ex);
+                showError();
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void showErrorIfFalse(Boolean success){
+        if (!success) showError();
+    }
+
+    private void showError(){
+        JOptionPane.showMessageDialog(this, ERROR_MESSAGE, OOPS, JOptionPane.ERROR_MESSAGE);
     }
 
     /**
@@ -179,6 +366,7 @@ public class MainScreen extends JFrame {
 
             this.add(buttonsPanel, new Cell(0,0.05));
             this.add(new JScrollPane(mainTable), new Cell(1,0.95));
+            this.add(progressBar, new Cell(2,0));
         }
 
         private class Cell extends GridBagConstraints {
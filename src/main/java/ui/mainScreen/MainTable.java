@@ -7,25 +7,20 @@ import org.slf4j.LoggerFactory;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
-import java.util.ArrayList;
-import java.util.Locale;
 
 /**
  * Table to show equations and their results
  *
  * @see MainScreen
+ * @see EquationTableModel
  */
 public class MainTable extends JTable {
     private static final Logger LOGGER = LoggerFactory.getLogger(MainTable.class);
 
-    private static final String EQUATION = "Equation";
-    private static final String RESULT = "Result";
-
     private final MainScreen owner;
 
-    public MainTable(ArrayList<Equation>list, MainScreen owner){
-        super(tableModel(list));
+    public MainTable(EquationTableModel model, MainScreen owner){
+        super(model);
         this.owner = owner;
 
         this.getTableHeader().setReorderingAllowed(false);
@@ -35,34 +30,44 @@ public class MainTable extends JTable {
         LOGGER.debug("MainTable of MainScreen was created successful");
     }
 
-    public void setList(ArrayList<Equation>list){
-        if (list != null) this.setModel(tableModel(list));
+    /**
+     * @param model with equations to show
+     */
+    public void setTableModel(EquationTableModel model){
+        if (model != null) this.setModel(model);
     }
 
-    private static DefaultTableModel tableModel(ArrayList<Equation>list){
-        LOGGER.debug("Start of creating TableModel with equations list: {}", list);
-
-        if (list == null) list = new ArrayList<>();
-
-        DefaultTableModel model = new DefaultTableModel(){
-            @Override
-            public boolean isCellEditable(int row, int column){
-                return false;
-            }
-        };
-
-        String[]columnsHeader = new String[] {EQUATION, RESULT};
-        model.setColumnIdentifiers(columnsHeader);
-
-        for (Equation equation : list) {
-            String[] data = new String[2];
-            data[0] = equation.getEquation();
-            data[1] = String.format(Locale.GERMAN,"%2f", equation.getResult());
+    /**
+     * @return model of table
+     */
+    public EquationTableModel getTableModel(){
+        return this.getModel() instanceof EquationTableModel model ? model : null;
+    }
 
-            model.addRow(data);
-        }
+    /**
+     * @return equation from selected row
+     * null if row wasn't selected
+     */
+    public Equation getSelectedEquation(){
+        EquationTableModel model = getTableModel();
+        return model == null ? null : model.getEquation(this.getSelectedRow());
+    }
 
-        return model;
+    /**
+     * Selects row of equation and scrolls table to it
+     *
+     * @param id of equation
+     *
+     * @return true if table has equation with this id
+     */
+    public boolean selectEquation(int id){
+        EquationTableModel model = getTableModel();
+        int row = model == null ? -1 : model.rowOf(id);
+        if (row < 0) return false;
+
+        this.setRowSelectionInterval(row, row);
+        this.scrollRectToVisible(this.getCellRect(row, 0, true));
+        return true;
     }
 
     private final ListSelectionListener selected = new ListSelectionListener() {
@@ -0,0 +1,64 @@
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EquationRepository;
+import repository.EquationRepository_sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveApplicationTest {
+
+    private static int run(String ... args){
+        PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        return new ArchiveApplication().run(args, out, out);
+    }
+
+    /**
+     * @see ArchiveApplication#run(String[], PrintStream, PrintStream)
+     */
+    @Test
+    void exportAndImport(@TempDir Path directory) {
+        String source = "jdbc:sqlite:" + directory.resolve("source.db");
+        String target = "jdbc:sqlite:" + directory.resolve("target.db");
+        try (EquationRepository repository = new EquationRepository_sql(source, null, null)) {
+            for (String text : new String[]{"2*2", "5-1"}) {
+                Equation equation = new Equation();
+                equation.setEquation(text);
+                equation.setResult(4);
+                repository.add(equation);
+            }
+        }
+
+        String binary = directory.resolve("equations.bin").toString();
+        String csv = directory.resolve("equations.csv").toString();
+        assertEquals(0, run("export", "--db", source, binary));
+        assertEquals(0, run("export", "--csv", "--db", source, csv));
+        assertEquals(0, run("import", "--db", target, binary));
+        assertEquals(0, run("import", "--csv", "--db", target, csv));
+        // equations with the same ids are replaced
+        assertEquals(0, run("import", "--csv", "--keep-ids", "--db", target, csv));
+
+        try (EquationRepository repository = new EquationRepository_sql(target, null, null)) {
+            assertArrayEquals(new int[]{1, 2, 3, 4}, repository.ids());
+        }
+    }
+
+    /**
+     * @see ArchiveApplication#run(String[], PrintStream, PrintStream)
+     */
+    @Test
+    void incorrectArgs(@TempDir Path directory) {
+        assertEquals(2, run());
+        assertEquals(2, run("export"));
+        assertEquals(2, run("copy", "file"));
+        assertEquals(2, run("import", "file", "other"));
+        assertEquals(2, run("import", "--db"));
+        assertEquals(1, run("import", "--db", "jdbc:sqlite:" + directory.resolve("empty.db"),
+                directory.resolve("missing.bin").toString()));
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.EquationService;
+import service.EquationService_impl;
+import repository.EquationRepository_sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchApplicationTest {
+
+    private static String run(String input, String ... args){
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int code = new BatchApplication().run(args,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(0, code, err.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Calculated"));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @see BatchApplication#run(String[], java.io.InputStream, PrintStream, PrintStream)
+     */
+    @Test
+    void run() {
+        assertEquals("2*2\t4.0\n1,5 + 2\t3.5\n6/0\tERROR\n", run("2*2\n\n1,5 + 2\n6/0\n"));
+        assertEquals("", run(""));
+
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < BatchApplication.CHUNK_SIZE * 2 + 17; i++) {
+            input.append(i).append("+1\n");
+            expected.append(i).append("+1\t").append(i + 1D).append('\n');
+        }
+        assertEquals(expected.toString(), run(input.toString(), "--threads", "3"));
+    }
+
+    /**
+     * @see BatchApplication#run(String[], java.io.InputStream, PrintStream, PrintStream)
+     */
+    @Test
+    void store(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("batch.db");
+        run("2*2\n6/0\n5-1\n", "--db", url);
+
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            assertEquals(2, service.getAll().size());
+            assertEquals(2, service.get("=", 4D).size());
+        }
+    }
+
+    /**
+     * @see BatchApplication#run(String[], java.io.InputStream, PrintStream, PrintStream)
+     */
+    @Test
+    void memo(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("memo.db");
+        assertEquals("2*2\t4.0\n6/0\tERROR\n2 * 2\t4.0\n", run("2*2\n6/0\n2 * 2\n", "--db", url, "--memo"));
+        assertEquals("2*2\t4.0\n5-1\t4.0\n", run("2*2\n5-1\n", "--db", url, "--memo"));
+
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            assertEquals(2, service.getAll().size());
+        }
+    }
+
+    /**
+     * Failed saving MUST! be reported with exit code 1
+     *
+     * @see BatchApplication#run(String[], java.io.InputStream, PrintStream, PrintStream)
+     */
+    @Test
+    void storeFailed(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("failed.db");
+        new EquationRepository_sql(url, null, null).close();
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TRIGGER read_only BEFORE INSERT ON equations BEGIN SELECT RAISE(ABORT, 'read only'); END;");
+        }
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int code = new BatchApplication().run(new String[]{"--db", url},
+                new ByteArrayInputStream("2*2\n".getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        assertEquals(1, code);
+        assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("Saving of chunk 1 (equations from 1) to DB failed"),
+                err.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @see BatchApplication#run(String[], java.io.InputStream, PrintStream, PrintStream)
+     */
+    @Test
+    void incorrectArgs() {
+        PrintStream err = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        assertEquals(2, new BatchApplication().run(new String[]{"--threads", "0"}, System.in, System.out, err));
+        assertEquals(2, new BatchApplication().run(new String[]{"--unknown"}, System.in, System.out, err));
+        assertEquals(2, new BatchApplication().run(new String[]{"--output"}, System.in, System.out, err));
+    }
+}
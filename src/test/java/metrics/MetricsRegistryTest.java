@@ -0,0 +1,79 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+import service.MathParser;
+import service.MathParserService;
+import service.MathParserService_metrics;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    /**
+     * @see LatencyHistogram#index(long)
+     * @see LatencyHistogram#lowerBound(int)
+     */
+    @Test
+    void buckets() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.lowerBound(index) <= value, "value " + value);
+            if (value < Long.MAX_VALUE) assertTrue(LatencyHistogram.lowerBound(index + 1) > value, "value " + value);
+        }
+        assertTrue(LatencyHistogram.lowerBound(LatencyHistogram.index(1_000_000)) > 1_000_000 * 15 / 16);
+    }
+
+    /**
+     * @see LatencyHistogram#percentile(double)
+     */
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+
+        for (int value = 1; value <= 1000; value++) histogram.record(value * 1000L);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_000, histogram.percentile(50), 500_000 / 16D);
+        assertEquals(990_000, histogram.percentile(99), 990_000 / 16D);
+        assertEquals(1_000_000, histogram.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    /**
+     * @see MathParserService_metrics
+     * @see MetricsRegistry#snapshot()
+     */
+    @Test
+    void decorator() {
+        MetricsRegistry registry = new MetricsRegistry();
+        MathParserService parser = new MathParserService_metrics(new MathParser(), registry);
+
+        assertEquals("4.0", parser.calculate("2*2"));
+        assertNull(parser.calculate("2*"));
+        assertTrue(parser.equationIsCorrect("2*2"));
+        assertFalse(parser.equationIsCorrect("2*"));
+
+        List<OperationMetrics.Snapshot> snapshot = registry.snapshot();
+        assertEquals(List.of("parser.calculate", "parser.compile", "parser.numberOfNumbers", "parser.validate"),
+                snapshot.stream().map(OperationMetrics.Snapshot::name).toList());
+
+        OperationMetrics.Snapshot calculate = snapshot.get(0);
+        assertEquals(2, calculate.count());
+        assertEquals(1, calculate.errors());
+        assertTrue(calculate.max() > 0);
+        assertTrue(calculate.p50() <= calculate.max());
+
+        OperationMetrics.Snapshot validate = snapshot.get(3);
+        assertEquals(2, validate.count());
+        assertEquals(0, validate.errors());
+
+        registry.reset();
+        assertEquals(0, registry.snapshot().get(0).count());
+    }
+}
@@ -0,0 +1,68 @@
+package metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+    private final Tracer tracer = Tracer.of(TracerTest.class);
+
+    @BeforeEach
+    void debugLevel(){
+        org.apache.log4j.Logger.getLogger(TracerTest.class).setLevel(org.apache.log4j.Level.DEBUG);
+    }
+
+    @AfterEach
+    void disable(){
+        Tracer.setSampling(0);
+    }
+
+    /**
+     * @see Tracer#start()
+     * @see Tracer#setSampling(int)
+     */
+    @Test
+    void sampling() {
+        Tracer.setSampling(0);
+        assertEquals(Tracer.NOT_SAMPLED, tracer.start());
+
+        Tracer.setSampling(1);
+        assertNotEquals(Tracer.NOT_SAMPLED, tracer.start());
+
+        Tracer.setSampling(4);
+        int sampled = 0;
+        for (int index = 0; index < 4000; index++) {
+            if (tracer.start() != Tracer.NOT_SAMPLED) sampled++;
+        }
+        assertTrue(sampled > 500 && sampled < 1500, "sampled " + sampled);
+
+        Tracer.setSampling(-1);
+        assertEquals(0, Tracer.getSampling());
+    }
+
+    /**
+     * Disabled tracing MUST! not allocate anything
+     */
+    @Test
+    void disabledTracingDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) return;
+
+        Tracer.setSampling(0);
+        String operation = "operation";
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int index = 0; index < 100_000; index++) {
+            long trace = tracer.start();
+            tracer.end(trace, operation, index);
+            tracer.end(trace, operation, index, operation);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+}
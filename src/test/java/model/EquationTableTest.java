@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationTableTest {
+
+    /**
+     * @see EquationTable#add(int, String, double)
+     * @see EquationTable#getEquation(int)
+     */
+    @Test
+    void columns() {
+        EquationTable table = new EquationTable(1);
+        assertTrue(table.isEmpty());
+
+        ArrayList<Equation> equations = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            Equation equation = new Equation();
+            equation.setId(id * 2);
+            equation.setEquation(id % 3 == 0 ? "" : id + "*(2-\u03C0)\u00F7" + id);
+            equation.setResult(id / 3D);
+            equations.add(equation);
+            table.add(equation);
+        }
+
+        assertEquals(1000, table.size());
+        for (int row = 0; row < table.size(); row++) {
+            Equation equation = equations.get(row);
+            assertEquals(equation.getId(), table.getId(row));
+            assertEquals(equation.getEquation(), table.getEquation(row));
+            assertEquals(equation.getResult(), table.getResult(row));
+            assertEquals(equation, table.get(row));
+        }
+
+        table.trimToSize();
+        table.add(2001, "1+1", 2);
+        assertEquals("1+1", table.getEquation(1000));
+        assertEquals(equations.get(999).getEquation(), table.getEquation(999));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getId(1001));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getEquation(-1));
+    }
+
+    /**
+     * @see EquationTable#of(java.util.Collection)
+     * @see EquationTable#indexOf(int)
+     */
+    @Test
+    void search() {
+        Equation first = new Equation();
+        first.setId(3);
+        Equation second = new Equation();
+        second.setId(7);
+
+        EquationTable table = EquationTable.of(Arrays.asList(first, null, second));
+
+        assertArrayEquals(new int[]{3, 7}, table.ids());
+        assertEquals(0, table.indexOf(3));
+        assertEquals(1, table.indexOf(7));
+        assertEquals(-1, table.indexOf(5));
+        assertEquals(-1, new EquationTable().indexOf(3));
+    }
+
+    /**
+     * @see Equation#hashCode()
+     */
+    @Test
+    void hashCodeOfEquation() {
+        Equation equation = new Equation();
+        equation.setId(42);
+        equation.setEquation("2*2.10");
+        equation.setResult(4.2);
+        assertEquals(Objects.hash(42, "2*2.10", 4.2), equation.hashCode());
+
+        equation.setEquation(null);
+        assertEquals(Objects.hash(42, null, 4.2), equation.hashCode());
+    }
+}
@@ -0,0 +1,85 @@
+package repository;
+
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationArchiveTest {
+
+    private static EquationRepository repository(Path directory, String name){
+        return new EquationRepository_sql("jdbc:sqlite:" + directory.resolve(name), null, null);
+    }
+
+    private static ArrayList<Equation> equations(int count){
+        ArrayList<Equation> equations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Equation equation = new Equation();
+            equation.setEquation(i % 3 == 0 ? "1,5 + " + i : "\"" + i + "\"*2");
+            equation.setResult(i * 1.5);
+            equations.add(equation);
+        }
+        return equations;
+    }
+
+    /**
+     * @see EquationArchive#exportBinary(EquationRepository, Path)
+     * @see EquationArchive#importBinary(EquationRepository, Path, boolean)
+     */
+    @Test
+    void binary(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("equations.bin");
+        try (EquationRepository source = repository(directory, "source.db");
+             EquationRepository target = repository(directory, "target.db")) {
+            source.addAll(equations(EquationArchive.BATCH_SIZE + 7));
+            source.remove(5);
+
+            assertEquals(EquationArchive.BATCH_SIZE + 6, EquationArchive.exportBinary(source, file));
+            long size = 16;
+            for (Equation equation : source.getAll()) {
+                size += Integer.BYTES + equation.getEquation().getBytes(StandardCharsets.UTF_8).length + Double.BYTES + Integer.BYTES;
+            }
+            assertEquals(size, Files.size(file));
+            assertEquals(EquationArchive.BATCH_SIZE + 6, EquationArchive.importBinary(target, file, true));
+            assertIterableEquals(source.getAll(), target.getAll());
+
+            assertEquals(EquationArchive.BATCH_SIZE + 6, EquationArchive.importBinary(target, file, false));
+            assertEquals((EquationArchive.BATCH_SIZE + 6) * 2, target.ids().length);
+        }
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        try (EquationRepository target = repository(directory, "empty.db")) {
+            assertThrows(IOException.class, () -> EquationArchive.importBinary(target, file, true));
+        }
+    }
+
+    /**
+     * @see EquationArchive#exportCsv(EquationRepository, Path)
+     * @see EquationArchive#importCsv(EquationRepository, Path, boolean)
+     */
+    @Test
+    void csv(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("equations.csv");
+        try (EquationRepository source = repository(directory, "source.db");
+             EquationRepository target = repository(directory, "target.db")) {
+            source.addAll(equations(100));
+
+            assertEquals(100, EquationArchive.exportCsv(source, file));
+            assertEquals("1,\"1,5 + 0\",0.0", Files.readAllLines(file).get(1));
+            assertEquals(100, EquationArchive.importCsv(target, file, true));
+            assertIterableEquals(source.getAll(), target.getAll());
+        }
+
+        Files.writeString(file, "id,equation,result\n1,\"2*2\",four\n");
+        try (EquationRepository target = repository(directory, "empty.db")) {
+            assertThrows(IOException.class, () -> EquationArchive.importCsv(target, file, true));
+        }
+    }
+}
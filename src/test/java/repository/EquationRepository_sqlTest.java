@@ -0,0 +1,261 @@
+package repository;
+
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationRepository_sqlTest {
+
+    /**
+     * @see EquationRepository_sql#get(String, double)
+     * @see EquationRepository_sql#between(double, double)
+     */
+    @Test
+    void resultIndex(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("index.db");
+
+        // DB that was created before index
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("INSERT INTO equations (equation, result) VALUES ('2*2', 4), ('5*5', 25);");
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertEquals(1, repository.get(">", 10D).size());
+            assertEquals(2, repository.between(0D, 30D).size());
+        }
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(
+                    "EXPLAIN QUERY PLAN SELECT * FROM equations WHERE result BETWEEN 1 AND 2 ORDER BY id;")) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) plan.append(resultSet.getString("detail")).append('\n');
+                assertTrue(plan.toString().contains("equations_result"), plan.toString());
+            }
+        }
+    }
+
+    /**
+     * @see EquationRepository_sql#search(String, int, int)
+     */
+    @Test
+    void textSearch(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("text.db");
+
+        // DB that was created before full-text index
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("INSERT INTO equations (equation, result) VALUES ('2*3.14', 6.28), ('5*5', 25);");
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertEquals(List.of(1), ids(repository.search("*3.14", 0, 10)));
+
+            Equation equation = new Equation();
+            equation.setEquation("(1+2*3.14)*3.14");
+            equation.setResult(22.86);
+            repository.add(equation);
+            assertEquals(List.of(1, 3), ids(repository.search("3.14", 0, 10)));
+            assertEquals(List.of(3), ids(repository.search("3.14", 1, 10)));
+            assertEquals(List.of(1), ids(repository.search("3.14", 0, 1)));
+
+            equation.setEquation("1+1");
+            repository.set(equation);
+            assertEquals(List.of(1), ids(repository.search("3.14", 0, 10)));
+
+            repository.remove(1);
+            assertTrue(repository.search("3.14", 0, 10).isEmpty());
+
+            Equation restored = new Equation();
+            restored.setId(2);
+            restored.setEquation("2*3.14");
+            restored.setResult(6.28);
+            assertEquals(1, repository.restoreAll(List.of(restored)));
+            assertEquals(List.of(2), ids(repository.search("2*3", 0, 10)));
+            assertTrue(repository.search("5*5", 0, 10).isEmpty());
+
+            // texts shorter than trigram are searched by scan
+            assertEquals(List.of(3, 2), ids(repository.search("1", 0, 10)));
+            assertEquals(List.of(2), ids(repository.search("*", 0, 10)));
+
+            assertTrue(repository.search("\"3.14", 0, 10).isEmpty());
+            assertTrue(repository.search("", 0, 10).isEmpty());
+            assertTrue(repository.search(null, 0, 10).isEmpty());
+            assertTrue(repository.search("3.14", 0, 0).isEmpty());
+        }
+    }
+
+    /**
+     * @see EquationRepository_sql#find(String)
+     * @see EquationRepository_sql#addOrGet(Equation)
+     */
+    @Test
+    void canonicalForms(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("canonical.db");
+
+        // DB that was created before canonical forms, with the same equation in different forms
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("""
+                    INSERT INTO equations (equation, result) VALUES
+                     ('1,5+2', 3.5), ('2*2', 4), ('1.5 + 2', 3.5), ('+1.5+2', 3.5), ('2(2)', 4);""");
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertArrayEquals(new int[]{1, 2, 5}, repository.ids());
+            assertEquals(1, repository.find("1.5+2").getId());
+            assertEquals(5, repository.find(" 2 ( 2 )").getId());
+            assertNull(repository.find("2*3"));
+            assertNull(repository.find(null));
+
+            Equation same = new Equation();
+            same.setEquation("+1,5 + 2");
+            same.setResult(3.5);
+            Equation stored = repository.addOrGet(same);
+            assertEquals(1, stored.getId());
+            assertNotSame(same, stored);
+
+            Equation added = new Equation();
+            added.setEquation("2*3");
+            added.setResult(6);
+            assertSame(added, repository.addOrGet(added));
+            assertEquals(6, added.getId());
+            assertEquals(6, repository.find("2 * 3").getId());
+
+            added.setEquation("2*4");
+            added.setResult(8);
+            repository.set(added);
+            assertNull(repository.find("2*3"));
+            assertEquals(6, repository.find("2*4").getId());
+
+            assertNull(repository.addOrGet(null));
+
+            Equation first = new Equation();
+            first.setEquation("3*3");
+            first.setResult(9);
+            Equation repeated = new Equation();
+            repeated.setEquation("3 * 3");
+            repeated.setResult(9);
+            Equation[] all = repository.addOrGetAll(Arrays.asList(same, first, null, repeated));
+            assertEquals(1, all[0].getId());
+            assertSame(first, all[1]);
+            assertNull(all[2]);
+            assertEquals(first.getId(), all[3].getId());
+            assertEquals(0, repository.addOrGetAll(null).length);
+        }
+
+        // rows that were inserted not by repository get canonical forms, but aren't merged
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO equations (equation, result) VALUES ('7-1', 6), ('7 - 1', 6);");
+        }
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertEquals(8, repository.find("7-1").getId());
+            assertEquals(7, repository.ids().length);
+        }
+    }
+
+    /**
+     * Results that were saved by older parser ("2 + 2" was calculated as 22) MUST! be repaired,
+     * duplicates MUST! be removed only if their results are the same
+     *
+     * @see EquationRepository_sql#find(String)
+     */
+    @Test
+    void legacyResults(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("legacy.db");
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("""
+                    INSERT INTO equations (equation, result) VALUES
+                     ('2 + 2', 22), ('2+2', 4), ('1,5 + 2', 1.52), ('x', 1), (' x', 2), ('x ', 1);""");
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertArrayEquals(new int[]{1, 3, 4, 5}, repository.ids());
+            assertEquals(4, repository.get(1).getResult());
+            assertEquals(4, repository.find("2+2").getResult());
+            assertEquals(3.5, repository.find("1.5+2").getResult());
+
+            // equations that parser can't calculate are kept if their results differ
+            assertEquals(1, repository.get(4).getResult());
+            assertEquals(2, repository.get(5).getResult());
+        }
+    }
+
+    /**
+     * Migration that was interrupted after column was added MUST! run again
+     *
+     * @see EquationRepository_sql#find(String)
+     */
+    @Test
+    void interruptedMigration(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("interrupted.db");
+
+        // column was added, but duplicates weren't removed and version of DB wasn't changed
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("INSERT INTO equations (equation, result) VALUES ('2*2', 4), ('2 * 2', 4);");
+            statement.execute("ALTER TABLE equations ADD COLUMN canonical_hash integer;");
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null)) {
+            assertArrayEquals(new int[]{1}, repository.ids());
+            assertEquals(1, repository.find("2*2").getId());
+        }
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version;")) {
+            assertTrue(resultSet.next());
+            assertEquals(1, resultSet.getInt(1));
+        }
+    }
+
+    private static List<Integer> ids(List<Equation> equations){
+        return equations.stream().map(Equation::getId).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package repository;
+
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageProfileTest {
+
+    private static Properties properties(){
+        Properties properties = new Properties();
+        properties.setProperty("sqlite.journal_mode", "WAL");
+        properties.setProperty("sqlite.synchronous", " NORMAL ");
+        properties.setProperty("sqlite.cache_size", "-2000");
+        properties.setProperty("sqlite.temp_store", "MEMORY; DROP TABLE equations");
+        return properties;
+    }
+
+    /**
+     * @see StorageProfile#fromProperties(Properties)
+     */
+    @Test
+    void fromProperties() {
+        StorageProfile profile = StorageProfile.fromProperties(properties());
+
+        assertTrue(profile.isWal());
+        assertEquals("NORMAL", profile.get(StorageProfile.SYNCHRONOUS));
+        assertEquals("-2000", profile.get(StorageProfile.CACHE_SIZE));
+        assertNull(profile.get(StorageProfile.TEMP_STORE));
+        assertNull(profile.get(StorageProfile.MMAP_SIZE));
+
+        assertFalse(StorageProfile.fromProperties(null).isWal());
+        assertFalse(StorageProfile.DEFAULT.isWal());
+    }
+
+    /**
+     * @see StorageProfile#apply(Connection)
+     * @see StorageProfile#report(Connection)
+     */
+    @Test
+    void apply(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("profile.db");
+        StorageProfile profile = StorageProfile.fromProperties(properties());
+
+        try (Connection connection = DriverManager.getConnection(url)) {
+            profile.apply(connection);
+            String report = StorageProfile.report(connection);
+
+            assertTrue(report.contains("journal_mode = wal"), report);
+            assertTrue(report.contains("synchronous = 1"), report);
+            assertTrue(report.contains("cache_size = -2000"), report);
+        }
+
+        try (EquationRepository repository = new EquationRepository_sql(url, null, null, profile)) {
+            Equation equation = new Equation();
+            equation.setEquation("2*2");
+            equation.setResult(4D);
+
+            assertTrue(repository.add(equation));
+            assertEquals(equation, repository.get(equation.getId()));
+            assertEquals(1, repository.getAll().size());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package service;
+
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EquationRepository_sql;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEquationServiceTest {
+
+    /**
+     * @see AsyncEquationService_impl
+     */
+    @Test
+    void requests(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("async.db");
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            AsyncEquationService async = new AsyncEquationService_impl(service);
+
+            Equation equation = new Equation();
+            equation.setEquation("2*2");
+            equation.setResult(4D);
+
+            assertTrue(async.add(equation).join());
+            assertArrayEquals(new int[]{equation.getId()}, async.ids().join());
+            assertEquals(equation, async.get(equation.getId()).join());
+            assertEquals(1, async.get("=", 4D).join().size());
+            assertEquals(1, async.between(0D, 10D).join().size());
+            assertEquals(1, async.page(0, 10).join().size());
+
+            equation.setResult(5D);
+            assertTrue(async.set(equation).join());
+            assertTrue(async.remove(equation.getId()).join());
+            assertFalse(async.remove(equation.getId()).join());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package service;
+
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EquationRepository_sql;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEquationService_writeBehindTest {
+
+    private static Equation equation(String text, double result){
+        Equation equation = new Equation();
+        equation.setEquation(text);
+        equation.setResult(result);
+        return equation;
+    }
+
+    /**
+     * Changes after closing MUST! complete exceptionally instead of waiting forever
+     *
+     * @see AsyncEquationService_writeBehind#close()
+     */
+    @Test
+    void closed(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("closed.db");
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            AsyncEquationService_writeBehind writeBehind = new AsyncEquationService_writeBehind(service);
+            CompletableFuture<Boolean> added = writeBehind.add(equation("2*2", 4));
+            writeBehind.close();
+            assertTrue(added.join());
+            writeBehind.close();
+
+            Equation equation = equation("3*3", 9);
+            for (CompletableFuture<?> future : List.of(writeBehind.add(equation), writeBehind.addOrGet(equation),
+                    writeBehind.set(equation), writeBehind.remove(1), writeBehind.flush(), writeBehind.ids())) {
+                CompletionException ex = assertThrows(CompletionException.class, future::join);
+                assertInstanceOf(IllegalStateException.class, ex.getCause());
+            }
+            assertEquals(1, service.getAll().size());
+        }
+    }
+
+    /**
+     * @see AsyncEquationService_writeBehind#add(Equation)
+     * @see AsyncEquationService_writeBehind#set(Equation)
+     * @see AsyncEquationService_writeBehind#remove(int)
+     */
+    @Test
+    void groups(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("writeBehind.db");
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            ArrayList<EquationEvent> events = new ArrayList<>();
+            service.addEquationListener(events::add);
+
+            try (AsyncEquationService_writeBehind writeBehind =
+                         new AsyncEquationService_writeBehind(service, 10_000, 1000, Runnable::run)) {
+                ArrayList<CompletableFuture<Boolean>> adds = new ArrayList<>();
+                ArrayList<Equation> equations = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    Equation equation = equation(i + "+1", i + 1);
+                    equations.add(equation);
+                    adds.add(writeBehind.add(equation));
+                }
+                assertFalse(adds.get(0).isDone());
+                assertEquals(100, writeBehind.ids().join().length);
+                for (CompletableFuture<Boolean> add : adds) assertTrue(add.join());
+                assertEquals(1, events.size());
+
+                Equation first = equations.get(0);
+                first.setResult(10D);
+                CompletableFuture<Boolean> set1 = writeBehind.set(first);
+                Equation changed = equation("5+5", 10D);
+                changed.setId(first.getId());
+                CompletableFuture<Boolean> set2 = writeBehind.set(changed);
+                CompletableFuture<Boolean> set3 = writeBehind.set(equation("1", 1));
+
+                Equation second = equations.get(1);
+                second.setResult(20D);
+                CompletableFuture<Boolean> setRemoved = writeBehind.set(second);
+                CompletableFuture<Boolean> remove = writeBehind.remove(second.getId());
+                CompletableFuture<Boolean> setAfterRemove = writeBehind.set(second);
+
+                writeBehind.flush().join();
+                assertTrue(set1.join());
+                assertTrue(set2.join());
+                assertFalse(set3.join());
+                assertTrue(setRemoved.join());
+                assertTrue(remove.join());
+                assertFalse(setAfterRemove.join());
+
+                assertEquals("5+5", service.get(first.getId()).getEquation());
+                assertNull(service.get(second.getId()));
+                assertEquals(3, events.size());
+
+                assertFalse(writeBehind.add(null).join());
+            }
+        }
+    }
+
+    /**
+     * @see AsyncEquationService_writeBehind#addOrGet(Equation)
+     */
+    @Test
+    void addOrGet(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("writeBehind.db");
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            ArrayList<EquationEvent> events = new ArrayList<>();
+            service.addEquationListener(events::add);
+
+            try (AsyncEquationService_writeBehind writeBehind =
+                         new AsyncEquationService_writeBehind(service, 10_000, 1000, Runnable::run)) {
+                Equation added = equation("2*2", 4);
+                CompletableFuture<Boolean> add = writeBehind.add(added);
+                ArrayList<CompletableFuture<Equation>> lookups = new ArrayList<>();
+                for (int i = 0; i < 100; i++) lookups.add(writeBehind.addOrGet(equation(i % 50 + "+1", i % 50 + 1)));
+                CompletableFuture<Equation> same = writeBehind.addOrGet(equation("2 * 2", 4));
+                assertFalse(lookups.get(0).isDone());
+
+                writeBehind.flush().join();
+                assertTrue(add.join());
+                assertEquals(added.getId(), same.join().getId());
+                for (int i = 0; i < 50; i++) {
+                    assertEquals(lookups.get(i).join().getId(), lookups.get(i + 50).join().getId());
+                }
+                assertEquals(51, service.ids().length);
+                assertEquals(2, events.size());
+
+                assertNull(writeBehind.addOrGet(null).join());
+            }
+        }
+    }
+
+    /**
+     * @see AsyncEquationService_writeBehind#close()
+     */
+    @Test
+    void maxOperations(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("writeBehind.db");
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            CompletableFuture<Boolean> last;
+            try (AsyncEquationService_writeBehind writeBehind =
+                         new AsyncEquationService_writeBehind(service, 10_000, 10, Runnable::run)) {
+                ArrayList<CompletableFuture<Boolean>> adds = new ArrayList<>();
+                for (int i = 0; i < 10; i++) adds.add(writeBehind.add(equation(String.valueOf(i), i)));
+                for (CompletableFuture<Boolean> add : adds) assertTrue(add.join());
+
+                last = writeBehind.add(equation("11", 11));
+            }
+            assertTrue(last.isDone());
+            assertEquals(11, service.ids().length);
+        }
+    }
+}
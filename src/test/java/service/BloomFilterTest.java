@@ -0,0 +1,35 @@
+package service;
+
+import model.CanonicalForm;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    /**
+     * @see BloomFilter#add(long)
+     * @see BloomFilter#mightContain(long)
+     */
+    @Test
+    void mightContain() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(CanonicalForm.hash(i + "+1"));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(CanonicalForm.hash(i + "+1")));
+        }
+        assertFalse(filter.isFull());
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(CanonicalForm.hash(i + "-1"))) falsePositives++;
+        }
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+
+        filter.add(CanonicalForm.hash("1+1"));
+        assertTrue(filter.isFull());
+        assertEquals(10_001, filter.count());
+    }
+}
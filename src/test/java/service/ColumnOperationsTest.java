@@ -0,0 +1,65 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnOperationsTest {
+    private static final byte[] OPERATIONS = new byte[]{Expression.ADD, Expression.SUBTRACT, Expression.MULTIPLY, Expression.DIVIDE};
+
+    /**
+     * Tests run with jdk.incubator.vector (see argLine of surefire), so {@link ColumnOperations#INSTANCE} is vector
+     * and scalar operations that are used without the module are checked against it directly
+     *
+     * @see ColumnOperations_scalar
+     * @see ColumnOperations_vector
+     */
+    @Test
+    void scalarEqualsVector() {
+        assertInstanceOf(ColumnOperations_vector.class, ColumnOperations.INSTANCE);
+        ColumnOperations scalar = new ColumnOperations_scalar();
+        ColumnOperations vector = ColumnOperations.INSTANCE;
+
+        Random random = new Random(7);
+        for (int length = 0; length <= 67; length++) {
+            double[] left = values(random, length + 3);
+            double[] right = values(random, length + 3);
+            double number = left[0];
+            for (byte operation : OPERATIONS) {
+                double[] expected = new double[length + 3];
+                double[] actual = new double[length + 3];
+
+                scalar.apply(operation, left, right, expected, length);
+                vector.apply(operation, left, right, actual, length);
+                assertArrayEquals(expected, actual, "columns, operation " + operation + ", length " + length);
+
+                scalar.apply(operation, left, number, expected, length);
+                vector.apply(operation, left, number, actual, length);
+                assertArrayEquals(expected, actual, "column and number, operation " + operation + ", length " + length);
+
+                scalar.apply(operation, number, right, expected, length);
+                vector.apply(operation, number, right, actual, length);
+                assertArrayEquals(expected, actual, "number and column, operation " + operation + ", length " + length);
+            }
+
+            double[] expected = new double[length + 3];
+            double[] actual = new double[length + 3];
+            scalar.negate(left, expected, length);
+            vector.negate(left, actual, length);
+            assertArrayEquals(expected, actual, "negate, length " + length);
+        }
+    }
+
+    /**
+     * Values with zeros, so division gives infinities and NaN
+     */
+    private static double[] values(Random random, int length){
+        double[] values = new double[length];
+        for (int index = 0; index < length; index++) {
+            values[index] = index % 5 == 0 ? 0 : (random.nextDouble() - 0.5) * 1000;
+        }
+        return values;
+    }
+}
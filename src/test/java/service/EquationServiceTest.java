@@ -1,6 +1,8 @@
 package service;
 
 import model.Equation;
+import model.EquationTable;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sqlite.JDBC;
@@ -11,6 +13,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -78,6 +81,11 @@ class EquationServiceTest {
         }
     }
 
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
     /**
      * @see EquationService#getAll()
      */
@@ -108,6 +116,110 @@ class EquationServiceTest {
         assertIterableEquals(new ArrayList<Equation>(), service.get("khgdf", 0));
     }
 
+    /**
+     * @see EquationService#ids()
+     * @see EquationService#page(int, int)
+     * @see EquationService#forEach(java.util.function.Consumer)
+     * @see EquationService#stream()
+     */
+    @Test
+    void pages() {
+        assertArrayEquals(new int[]{1, 2, 3}, service.ids());
+
+        assertIterableEquals(Arrays.asList(equation1(), equation2()), service.page(0, 2));
+        assertIterableEquals(Arrays.asList(equation3()), service.page(2, 2));
+        assertIterableEquals(new ArrayList<Equation>(), service.page(3, 2));
+        assertIterableEquals(new ArrayList<Equation>(), service.page(0, 0));
+
+        ArrayList<Equation> read = new ArrayList<>();
+        assertEquals(3, service.forEach(read::add));
+        assertIterableEquals(EQUATIONS, read);
+        assertEquals(0, service.forEach(null));
+
+        ArrayList<Equation> equations = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Equation equation = new Equation();
+            equation.setEquation(i + "+1");
+            equation.setResult(i + 1);
+            equations.add(equation);
+        }
+        service.addAll(equations);
+        EQUATIONS.addAll(equations);
+
+        assertIterableEquals(EQUATIONS, service.stream().toList());
+        assertEquals(EQUATIONS.size(), service.forEach(equation -> {}));
+        assertEquals(2, service.stream().skip(1000).limit(2).count());
+    }
+
+    /**
+     * @see EquationService#table()
+     * @see EquationService#table(int, int)
+     */
+    @Test
+    void tables() {
+        EquationTable table = service.table();
+        assertEquals(3, table.size());
+        for (int row = 0; row < table.size(); row++) {
+            assertEquals(EQUATIONS.get(row), table.get(row));
+        }
+
+        EquationTable page = service.table(1, 5);
+        assertArrayEquals(new int[]{2, 3}, page.ids());
+        assertEquals("2*2", page.getEquation(0));
+        assertEquals(4, page.getResult(0));
+        assertTrue(service.table(3, 5).isEmpty());
+        assertTrue(service.table(0, 0).isEmpty());
+        assertEquals(3, service.table(0, Integer.MAX_VALUE).size());
+    }
+
+    /**
+     * @see EquationService#addEquationListener(EquationListener)
+     * @see EquationService#removeEquationListener(EquationListener)
+     */
+    @Test
+    void listeners() {
+        ArrayList<String> events = new ArrayList<>();
+        EquationListener listener = event -> events.add(event.toString());
+        service.addEquationListener(listener);
+
+        Equation equation = new Equation();
+        equation.setEquation("1+1");
+        equation.setResult(2D);
+        assertTrue(service.add(equation));
+        assertTrue(service.set(equation1()));
+        assertFalse(service.set(null));
+        assertTrue(service.remove(2));
+        assertFalse(service.remove(2));
+        service.setAll(Arrays.asList(equation1(), null, equation3()));
+        service.removeAll(new int[]{3, 100});
+        service.addAll(new ArrayList<>());
+
+        assertIterableEquals(Arrays.asList(
+                "ADDED [" + equation.getId() + "]",
+                "UPDATED [1]",
+                "REMOVED [2]",
+                "UPDATED [1, 3]",
+                "REMOVED [3]"), events);
+
+        service.removeEquationListener(listener);
+        service.remove(1);
+        assertEquals(5, events.size());
+    }
+
+    /**
+     * @see EquationService#between(double, double)
+     */
+    @Test
+    void between() {
+        assertIterableEquals(EQUATIONS, service.between(4D, 51D));
+        assertIterableEquals(Arrays.asList(equation1(), equation2()), service.between(-10D, 4.2));
+        assertIterableEquals(Arrays.asList(equation2()), service.between(4D, 4D));
+
+        assertIterableEquals(new ArrayList<Equation>(), service.between(51D, 4D));
+        assertIterableEquals(new ArrayList<Equation>(), service.between(Double.NaN, 4D));
+        assertIterableEquals(new ArrayList<Equation>(), service.between(100D, 200D));
+    }
+
     /**
      * @see EquationService#set(Equation)
      */
@@ -167,4 +279,64 @@ class EquationServiceTest {
         assertFalse(service.remove(-10));
         assertIterableEquals(EQUATIONS, service.getAll());
     }
-}
\ No newline at end of file
+
+    /**
+     * @see EquationService#addAll(java.util.Collection)
+     */
+    @Test
+    void addAll() {
+        ArrayList<Equation> equations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Equation equation = new Equation();
+            equation.setEquation(i + "+1");
+            equation.setResult(i + 1D);
+            equations.add(equation);
+        }
+        equations.add(500, null);
+
+        int[] ids = service.addAll(equations);
+        assertEquals(equations.size(), ids.length);
+        assertEquals(-1, ids[500]);
+        for (int i = 0; i < ids.length; i++) {
+            Equation equation = equations.get(i);
+            if (equation == null) continue;
+
+            assertEquals(ids[i], equation.getId());
+            assertEquals(equation, service.get(ids[i]));
+        }
+        equations.remove(500);
+        EQUATIONS.addAll(equations);
+        assertIterableEquals(EQUATIONS, service.getAll());
+
+        assertEquals(0, service.addAll(null).length);
+    }
+
+    /**
+     * @see EquationService#setAll(java.util.Collection)
+     */
+    @Test
+    void setAll() {
+        Equation equation = equation1();
+        equation.setEquation("9*9");
+        equation.setResult(81D);
+        EQUATIONS.set(0, equation);
+        Equation missing = equation2();
+        missing.setId(9);
+
+        boolean[] changed = service.setAll(Arrays.asList(equation, null, missing));
+        assertArrayEquals(new boolean[]{true, false, false}, changed);
+        assertIterableEquals(EQUATIONS, service.getAll());
+    }
+
+    /**
+     * @see EquationService#removeAll(int[])
+     */
+    @Test
+    void removeAll() {
+        EQUATIONS.remove(2);
+        EQUATIONS.remove(0);
+
+        assertArrayEquals(new boolean[]{true, false, true}, service.removeAll(new int[]{1, 10, 3}));
+        assertIterableEquals(EQUATIONS, service.getAll());
+    }
+}
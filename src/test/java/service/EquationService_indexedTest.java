@@ -0,0 +1,108 @@
+package service;
+
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EquationRepository_metrics;
+import repository.EquationRepository_sql;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationService_indexedTest {
+    private static final String[] CONDITIONS = new String[]{"<", "<=", "=", ">=", ">"};
+
+    private static Equation equation(String text, double result){
+        Equation equation = new Equation();
+        equation.setEquation(text);
+        equation.setResult(result);
+        return equation;
+    }
+
+    /**
+     * Searches of index MUST! return the same equations as searches of DB after any changes
+     *
+     * @see EquationService_indexed#get(String, double)
+     * @see EquationService_indexed#between(double, double)
+     */
+    @Test
+    void searches(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("indexed.db");
+        MetricsRegistry registry = new MetricsRegistry();
+        EquationService db = new EquationService_impl(new EquationRepository_metrics(new EquationRepository_sql(url, null, null), registry));
+        try (EquationService indexed = new EquationService_indexed(db)) {
+            Random random = new Random(42);
+            ArrayList<Equation> equations = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                equations.add(equation(i + "*\u00FC", random.nextInt(100) - 50));
+            }
+            indexed.addAll(equations);
+
+            assertEquals(db.get(">=", 0), indexed.get(">=", 0));
+
+            ArrayList<EquationEvent> events = new ArrayList<>();
+            indexed.addEquationListener(events::add);
+            for (int i = 0; i < 300; i++) {
+                Equation equation = equations.get(random.nextInt(equations.size()));
+                switch (i % 3) {
+                    case 0 -> indexed.add(equation(i + "-1", random.nextInt(100) - 50));
+                    case 1 -> {
+                        equation.setResult(random.nextInt(100) - 50);
+                        equation.setEquation(i + "+" + i);
+                        indexed.set(equation);
+                    }
+                    default -> indexed.remove(equation.getId());
+                }
+            }
+            assertFalse(events.isEmpty());
+
+            long searches = search(registry).count();
+            for (int result = -52; result <= 52; result += 3) {
+                for (String condition : CONDITIONS) {
+                    assertEquals(db.get(condition, result), indexed.get(condition, result), "result " + condition + " " + result);
+                }
+                assertEquals(db.between(result, result + 10), indexed.between(result, result + 10));
+            }
+            assertEquals(searches + 35 * 6, search(registry).count());
+
+            assertTrue(indexed.get("!=", 0).isEmpty());
+            assertTrue(indexed.get(null, 0).isEmpty());
+            assertTrue(indexed.between(10, 0).isEmpty());
+            assertTrue(indexed.between(Double.NaN, 0).isEmpty());
+        }
+    }
+
+    /**
+     * Equations that are added after null MUST! be indexed and announced
+     *
+     * @see EquationService_indexed#addOrGetAll(java.util.Collection)
+     */
+    @Test
+    void addOrGetAll(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("addOrGetAll.db");
+        try (EquationService indexed = new EquationService_indexed(new EquationService_impl(new EquationRepository_sql(url, null, null)))) {
+            assertTrue(indexed.get("=", 9).isEmpty());
+
+            ArrayList<EquationEvent> events = new ArrayList<>();
+            indexed.addEquationListener(events::add);
+            Equation added = equation("3*3", 9);
+            Equation[] stored = indexed.addOrGetAll(Arrays.asList(null, added));
+            assertSame(added, stored[1]);
+
+            assertEquals(List.of(added), indexed.get("=", 9));
+            assertEquals(1, events.size());
+            assertArrayEquals(new int[]{added.getId()}, events.get(0).getIds());
+        }
+    }
+
+    private static OperationMetrics.Snapshot search(MetricsRegistry registry){
+        return registry.operation("repository.search").snapshot();
+    }
+}
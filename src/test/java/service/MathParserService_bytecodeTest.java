@@ -0,0 +1,65 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathParserService_bytecodeTest {
+    private static final MathParserService interpreter = new MathParser();
+    private static final MathParserService bytecode = new MathParserService_bytecode(0);
+
+    /**
+     * @see MathParserService_bytecode#compile(String)
+     */
+    @Test
+    void compile() {
+        String[] equations = {
+                "(12,01*5478 - (-2*3) -3.21 - 6/-2)",
+                "-(12,01*5478 - (-2*3)( -3.21 - 6)/-2)",
+                "0 - 1 + 0.5/0.0",
+                "-(-(-(1)))"
+        };
+        for (String equation : equations) {
+            assertEquals(interpreter.compile(equation).evaluate(), bytecode.compile(equation).evaluate());
+        }
+
+        assertNull(bytecode.compile(null));
+        assertNull(bytecode.compile("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
+    }
+
+    /**
+     * @see MathParserService_bytecode#compile(String, String...)
+     */
+    @Test
+    void compileWithVariables() {
+        String[] variables = new String[300];
+        StringBuilder equation = new StringBuilder("0");
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = "v" + i;
+            equation.append(i % 2 == 0 ? "+" : "-").append(i + 0.5).append("*v").append(i);
+        }
+        double[] values = new double[variables.length];
+        for (int i = 0; i < values.length; i++) values[i] = i * 1.5 - 7;
+
+        CompiledExpression expected = interpreter.compile(equation.toString(), variables);
+        CompiledExpression actual = bytecode.compile(equation.toString(), variables);
+        assertEquals(expected.evaluate(values), actual.evaluate(values));
+        assertThrows(IllegalArgumentException.class, actual::evaluate);
+    }
+
+    /**
+     * @see MathParserService_bytecode#MathParserService_bytecode(int)
+     */
+    @Test
+    void threshold() {
+        CompiledExpression expression = new MathParserService_bytecode(100).compile("x*x-2/x", "x");
+        for (int x = 1; x <= 1000; x++) {
+            assertEquals(x * (double) x - 2D / x, expression.evaluate(new double[]{x}));
+        }
+
+        StringBuilder equation = new StringBuilder("1");
+        for (int i = 0; i < BytecodeCompiler.MAX_CODE_LENGTH; i++) equation.append("+").append(i).append(".5");
+        assertEquals(interpreter.calculate(equation.toString()),
+                String.valueOf(bytecode.compile(equation.toString()).evaluate()));
+    }
+}
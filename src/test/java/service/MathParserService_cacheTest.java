@@ -0,0 +1,54 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathParserService_cacheTest {
+
+    /**
+     * @see MathParserService_cache#calculate(String)
+     * @see MathParserService_cache#equationIsCorrect(String)
+     * @see MathParserService_cache#numberOfNumbers(String)
+     */
+    @Test
+    void calculate() {
+        MathParserService_cache cache = new MathParserService_cache(new MathParser(), 100);
+
+        assertEquals("3.5", cache.calculate("1,5 + 2"));
+        assertEquals("3.5", cache.calculate("1.5+2"));
+        assertTrue(cache.equationIsCorrect("+1.5+2"));
+        assertEquals(2, cache.numberOfNumbers("1.5 +2"));
+        assertSame(cache.compile("1.5+2"), cache.compile("1,5+2"));
+        assertEquals(1, cache.getMisses());
+        assertEquals(5, cache.getHits());
+        assertEquals(1, cache.size());
+
+        assertNull(cache.calculate("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
+        assertFalse(cache.equationIsCorrect("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
+        assertEquals(0, cache.numberOfNumbers("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
+        assertEquals(2, cache.getMisses());
+
+        assertNull(cache.calculate(null));
+        assertFalse(cache.equationIsCorrect(null));
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * @see MathParserService_cache#getEvictions()
+     */
+    @Test
+    void evictions() {
+        MathParserService_cache cache = new MathParserService_cache(new MathParser(), 32);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i + 1D), cache.calculate(i + "+1"));
+        }
+
+        assertTrue(cache.size() <= 32);
+        assertEquals(1000 - cache.size(), cache.getEvictions());
+        assertEquals(1000, cache.getMisses());
+    }
+}
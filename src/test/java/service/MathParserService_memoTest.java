@@ -0,0 +1,140 @@
+package service;
+
+import metrics.MetricsRegistry;
+import model.Equation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EquationRepository_metrics;
+import repository.EquationRepository_sql;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathParserService_memoTest {
+
+    /**
+     * Results that were calculated in one session MUST! be taken from DB in other session without parsing
+     *
+     * @see MathParserService_memo#calculate(String)
+     * @see MathParserService_memo#rebuild()
+     */
+    @Test
+    void calculate(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("memo.db");
+
+        MetricsRegistry registry = new MetricsRegistry();
+        try (EquationService service = new EquationService_impl(
+                new EquationRepository_metrics(new EquationRepository_sql(url, null, null), registry));
+             AsyncEquationService_writeBehind writeBack = new AsyncEquationService_writeBehind(service)) {
+            MathParserService_memo memo = new MathParserService_memo(
+                    new MathParserService_metrics(new MathParser(), registry), service, writeBack);
+            memo.rebuild().join();
+
+            assertEquals("3.5", memo.calculate("1,5 + 2"));
+            assertNull(memo.calculate("6/0"));
+            assertNull(memo.calculate(null));
+            assertEquals(2, memo.getMisses());
+            assertEquals(2, memo.getSkippedLookups());
+            assertEquals(0, count(registry, "repository.find"));
+
+            writeBack.flush().join();
+            assertEquals("3.5", memo.calculate("1.5+2"));
+            assertEquals(1, memo.getHits());
+            assertEquals(2, count(registry, "parser.calculate"));
+            assertEquals(1, service.getAll().size());
+        }
+
+        registry = new MetricsRegistry();
+        try (EquationService service = new EquationService_impl(
+                new EquationRepository_metrics(new EquationRepository_sql(url, null, null), registry))) {
+            MathParserService_memo memo = new MathParserService_memo(
+                    new MathParserService_metrics(new MathParser(), registry), service, null, Runnable::run);
+
+            assertEquals("3.5", memo.calculate("+1.5+2"));
+            assertEquals("4.0", memo.calculate("2*2"));
+            assertEquals("4.0", memo.calculate("2*2"));
+            assertEquals(1, memo.getHits());
+            assertEquals(2, memo.getSkippedLookups());
+            assertEquals(1, count(registry, "repository.find"));
+            assertEquals(2, count(registry, "parser.calculate"));
+            assertEquals(1, service.getAll().size());
+
+            // equation that was saved by user is learned from event of service
+            Equation saved = new Equation();
+            saved.setEquation("3*3");
+            saved.setResult(9);
+            assertTrue(service.add(saved));
+            assertEquals("9.0", memo.calculate("3 * 3"));
+            assertEquals(2, memo.getHits());
+            assertEquals(2, count(registry, "parser.calculate"));
+        }
+    }
+
+    /**
+     * Results that were saved by older parser MUST! NOT be returned
+     *
+     * @see MathParserService_memo#calculate(String)
+     */
+    @Test
+    void staleResults(@TempDir Path directory) throws SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("stale.db");
+
+        // older parser calculated "2 + 2" as 22
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE equations
+                     (id integer NOT NULL UNIQUE,
+                     equation test NOT NULL,
+                     result real NOT NULL,
+                     PRIMARY KEY ("id" AUTOINCREMENT));""");
+            statement.execute("INSERT INTO equations (equation, result) VALUES ('2 + 2', 22), ('7 + 5', 75);");
+        }
+
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null))) {
+            MathParserService_memo memo = new MathParserService_memo(new MathParser(), service, null, Runnable::run);
+
+            assertEquals("4.0", memo.calculate("2+2"));
+            assertEquals("12.0", memo.calculate("7+5"));
+            assertEquals(2, memo.getHits());
+        }
+    }
+
+    /**
+     * Hashes that are added while hashes are read from DB MUST! be in built filter
+     *
+     * @see MathParserService_memo#rebuild()
+     */
+    @Test
+    void hashesAddedWhileBuilding(@TempDir Path directory) {
+        String url = "jdbc:sqlite:" + directory.resolve("building.db");
+
+        Equation saved = new Equation();
+        saved.setEquation("3*3");
+        saved.setResult(9);
+        // equation is saved by user after hashes of DB were read, but before filter is built
+        try (EquationService service = new EquationService_impl(new EquationRepository_sql(url, null, null)) {
+            @Override
+            public long[] canonicalHashes() {
+                long[] hashes = super.canonicalHashes();
+                if (saved.getId() == 0) assertTrue(add(saved));
+                return hashes;
+            }
+        }) {
+            MathParserService_memo memo = new MathParserService_memo(new MathParser(), service, null, Runnable::run);
+
+            assertEquals("9.0", memo.calculate("3 * 3"));
+            assertEquals(1, memo.getHits());
+            assertEquals(0, memo.getSkippedLookups());
+        }
+    }
+
+    private static long count(MetricsRegistry registry, String operation){
+        return registry.operation(operation).snapshot().count();
+    }
+}
@@ -67,6 +67,9 @@ class MathParserTest {
         assertEquals("65763.15",mathParser.calculate("(12,01*5478 - 2*3( -3.21 - 6)/-2)"));
         assertEquals("22.0", mathParser.calculate("7+5*3"));
         assertEquals("6.0", mathParser.calculate("2+2*2"));
+        assertEquals("12.0", mathParser.calculate("7 + 5"));
+        assertEquals("-24.0", mathParser.calculate("2*-3*4"));
+        assertEquals("8.0", mathParser.calculate("3--5"));
 
         assertNull(mathParser.calculate(" +--+ "));
         assertNull(mathParser.calculate(null));
@@ -87,5 +90,95 @@ class MathParserTest {
         assertNull(mathParser.calculate("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
         assertNull(mathParser.calculate("(12,01*5478 - 2*3.( -3.21 - 6)/-2)"));
         assertNull(mathParser.calculate("(12,*5478 - (-2*3) -3.21 - 6/-2)"));
+        assertNull(mathParser.calculate("(*5)"));
+        assertNull(mathParser.calculate("()"));
+        assertNull(mathParser.calculate(""));
     }
-}
\ No newline at end of file
+
+    /**
+     * @see MathParserService#calculate(String)
+     */
+    @Test
+    void calculateLongEquation() {
+        StringBuilder equation = new StringBuilder("(1");
+        for (int i = 0; i < 100_000; i++) equation.append("+1");
+        equation.append(")*2");
+
+        assertEquals("200002.0", mathParser.calculate(equation.toString()));
+    }
+
+    /**
+     * @see MathParserService#compile(String)
+     */
+    @Test
+    void compile() {
+        CompiledExpression expression = mathParser.compile("(12,01*5478 - (-2*3) -3.21 - 6/-2)");
+        assertNotNull(expression);
+        assertEquals("(12.01*5478-(-2*3)-3.21-6/-2)", expression.getEquation());
+        assertEquals(7, expression.numberOfNumbers());
+        assertEquals(65796.56999999999, expression.evaluate());
+        assertEquals(expression.evaluate(), expression.evaluate());
+
+        assertNull(mathParser.compile(null));
+        assertNull(mathParser.compile(" +--+ "));
+        assertNull(mathParser.compile("(12,01*5478 - (-2*3) -3.21 - 6/0)"));
+    }
+
+    /**
+     * @see MathParserService#compile(String, String...)
+     */
+    @Test
+    void compileWithVariables() {
+        CompiledExpression expression = mathParser.compile("x*(y_1 + 2) - -x/y_1", "x", "y_1");
+        assertNotNull(expression);
+        assertArrayEquals(new String[]{"x", "y_1"}, expression.getVariables());
+        assertEquals(1, expression.numberOfNumbers());
+
+        double[] values = new double[2];
+        for (int x = -5; x <= 5; x++) {
+            for (int y = 1; y <= 5; y++) {
+                values[0] = x;
+                values[1] = y;
+                assertEquals(x * (y + 2D) - -x / (double) y, expression.evaluate(values));
+            }
+        }
+        assertEquals(-7D, mathParser.compile("-a+-b", "a", "b").evaluate(new double[]{3, 4}));
+        assertThrows(IllegalArgumentException.class, expression::evaluate);
+
+        assertNull(mathParser.compile("x*z", "x", "y"));
+        assertNull(mathParser.compile("x2*2", "x"));
+        assertNull(mathParser.compile("2x", "x"));
+        assertNull(mathParser.compile("x*2"));
+        assertNull(mathParser.compile("x*2", (String[]) null));
+    }
+
+    /**
+     * @see CompiledExpression#evaluate(double[][])
+     */
+    @Test
+    void evaluateColumns() {
+        CompiledExpression expression = mathParser.compile("-(x - 2*y)/(y+0.5) + x*x - 3", "x", "y");
+        int rows = 1003;
+        double[][] columns = new double[2][rows];
+        for (int row = 0; row < rows; row++) {
+            columns[0][row] = row * 0.25 - 100;
+            columns[1][row] = row % 17;
+        }
+        double[] x = columns[0].clone();
+
+        double[] result = expression.evaluate(columns);
+        assertEquals(rows, result.length);
+        for (int row = 0; row < rows; row++) {
+            assertEquals(expression.evaluate(new double[]{columns[0][row], columns[1][row]}), result[row]);
+        }
+        assertArrayEquals(x, columns[0]);
+
+        double[] copy = mathParser.compile("x", "x").evaluate(columns);
+        assertArrayEquals(x, copy);
+        assertNotSame(columns[0], copy);
+
+        assertArrayEquals(new double[]{6, 6, 6}, mathParser.compile("2*3").evaluate(new double[][]{new double[3]}));
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(new double[][]{x}));
+        assertThrows(IllegalArgumentException.class, () -> expression.evaluate(new double[][]{x, new double[1]}));
+    }
+}
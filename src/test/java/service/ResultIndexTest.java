@@ -0,0 +1,66 @@
+package service;
+
+import model.Equation;
+import model.EquationTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultIndexTest {
+
+    private static Equation equation(int id, double result){
+        Equation equation = new Equation();
+        equation.setId(id);
+        equation.setEquation(id + "%7");
+        equation.setResult(result);
+        return equation;
+    }
+
+    /**
+     * Index MUST! find equations with equal results after changes and removes of them
+     *
+     * @see ResultIndex#put(Equation)
+     * @see ResultIndex#remove(int)
+     */
+    @Test
+    void changes() {
+        TreeMap<Integer, Equation> expected = new TreeMap<>();
+        EquationTable table = new EquationTable();
+        for (int id = 1; id <= 5000; id++) {
+            Equation equation = equation(id, id % 7);
+            table.add(equation);
+            expected.put(id, equation);
+        }
+        ResultIndex index = new ResultIndex(table);
+
+        for (int id = 3; id <= 5000; id += 3) {
+            assertTrue(index.remove(id));
+            expected.remove(id);
+        }
+        for (int id = 2; id <= 5000; id += 5) {
+            Equation equation = equation(id, id % 11);
+            index.put(equation);
+            expected.put(id, equation);
+        }
+        for (int id = 5001; id <= 6000; id++) {
+            Equation equation = equation(id, id % 3);
+            index.put(equation);
+            expected.put(id, equation);
+        }
+        assertFalse(index.remove(3));
+        assertFalse(index.remove(7000));
+        assertEquals(expected.size(), index.size());
+
+        for (double result = -1; result <= 11; result++) {
+            ArrayList<Equation> equal = new ArrayList<>();
+            for (Equation equation : expected.values()) {
+                if (equation.getResult() == result) equal.add(equation);
+            }
+            assertEquals(equal, index.get("=", result));
+        }
+        assertEquals(new ArrayList<>(expected.values()), index.between(0, 11));
+    }
+}